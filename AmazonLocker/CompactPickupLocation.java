@@ -0,0 +1,230 @@
+package AmazonLocker;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Memory-compact variant of PickupLocation for sites with tens of thousands of lockers.
+ *
+ * Lockers are not objects: each Size owns a dense range of integer slots, and
+ * the global locker number is (size offset + slot). Free slots are tracked in a
+ * two-level bitset (a summary bit per 64-slot word), so finding a free locker
+ * is a couple of numberOfTrailingZeros calls. Package id -> locker number lives
+ * in an open-addressing map with parallel arrays (no entry objects, no boxing).
+ *
+ * Per locker this costs one bit of free-space bitmap plus the occupant
+ * reference; the package map adds a key reference and an int per stored package.
+ * Methods are synchronized; use PickupLocation where concurrent throughput matters.
+ */
+class CompactPickupLocation {
+
+    private final SlotPool[] pools = new SlotPool[Size.values().length];
+    private final Package[] occupants;
+    private final PackageSlotMap packageLoc = new PackageSlotMap(16);
+
+    public CompactPickupLocation(Map<Size, Integer> lockerSizes) {
+        int offset = 0;
+        for (Size sz : Size.values()) {
+            int count = lockerSizes.getOrDefault(sz, 0);
+            pools[sz.getNumVal()] = new SlotPool(offset, count);
+            offset += count;
+        }
+        occupants = new Package[offset];
+    }
+
+    /** Returns the locker number the package was placed in, or -1 if no locker fits. */
+    public synchronized int assignPackage(Package p) {
+        if (packageLoc.get(p.getId()) >= 0) {
+            throw new IllegalStateException("Package " + p.getId() + " is already in a locker");
+        }
+        // Try the package's own size first, then one size larger.
+        for (int s = p.getSize().getNumVal(); s < pools.length; s++) {
+            int locker = pools[s].acquire();
+            if (locker >= 0) {
+                occupants[locker] = p;
+                packageLoc.put(p.getId(), locker);
+                return locker;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized Package getPackage(String packageId) {
+        int locker = packageLoc.remove(packageId);
+        if (locker < 0)
+            return null;
+        Package p = occupants[locker];
+        occupants[locker] = null;
+        poolOf(locker).release(locker);
+        return p;
+    }
+
+    public synchronized int freeCount(Size sz) {
+        return pools[sz.getNumVal()].free;
+    }
+
+    public synchronized Size sizeOf(int locker) {
+        return Size.values()[indexOfPool(locker)];
+    }
+
+    private SlotPool poolOf(int locker) {
+        return pools[indexOfPool(locker)];
+    }
+
+    private int indexOfPool(int locker) {
+        for (int s = pools.length - 1; s >= 0; s--) {
+            if (locker >= pools[s].offset) return s;
+        }
+        throw new IllegalArgumentException("Unknown locker " + locker);
+    }
+
+    /** Free-slot bitset for one Size: bit set = slot is free. */
+    private static final class SlotPool {
+        final int offset;
+        final long[] words;
+        final long[] summary;   // bit w set = words[w] has at least one free slot
+        int free;
+
+        SlotPool(int offset, int count) {
+            this.offset = offset;
+            this.words = new long[(count + 63) >>> 6];
+            this.summary = new long[(words.length + 63) >>> 6];
+            this.free = count;
+            Arrays.fill(words, -1L);
+            if (count % 64 != 0) {
+                words[words.length - 1] = (1L << count) - 1; // only the low (count % 64) bits exist
+            }
+            for (int w = 0; w < words.length; w++) {
+                summary[w >>> 6] |= 1L << w;
+            }
+        }
+
+        // Returns the global locker number of a free slot and marks it used, or -1.
+        int acquire() {
+            for (int s = 0; s < summary.length; s++) {
+                if (summary[s] == 0) continue;
+                int w = (s << 6) + Long.numberOfTrailingZeros(summary[s]);
+                int bit = Long.numberOfTrailingZeros(words[w]);
+                words[w] &= ~(1L << bit);
+                if (words[w] == 0) {
+                    summary[s] &= ~(1L << w);
+                }
+                free--;
+                return offset + (w << 6) + bit;
+            }
+            return -1;
+        }
+
+        void release(int locker) {
+            int slot = locker - offset;
+            int w = slot >>> 6;
+            words[w] |= 1L << slot;
+            summary[w >>> 6] |= 1L << w;
+            free++;
+        }
+    }
+
+    /**
+     * Open-addressing String -> int map with linear probing and backward-shift
+     * deletion (no tombstones). Missing keys return -1.
+     */
+    static final class PackageSlotMap {
+        private String[] keys;
+        private int[] values;
+        private int size;
+
+        PackageSlotMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            keys = new String[capacity];
+            values = new int[capacity];
+        }
+
+        int get(String key) {
+            int mask = keys.length - 1;
+            for (int i = indexFor(key, mask); keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].equals(key)) return values[i];
+            }
+            return -1;
+        }
+
+        void put(String key, int value) {
+            if ((size + 1) * 2 > keys.length) resize();
+            int mask = keys.length - 1;
+            int i = indexFor(key, mask);
+            while (keys[i] != null) {
+                if (keys[i].equals(key)) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        int remove(String key) {
+            int mask = keys.length - 1;
+            int i = indexFor(key, mask);
+            while (keys[i] != null && !keys[i].equals(key)) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == null) return -1;
+            int removed = values[i];
+            // Shift later entries of the probe run back into the hole.
+            int hole = i;
+            for (int j = (hole + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+                int home = indexFor(keys[j], mask);
+                // Move if the entry's home is not cyclically in (hole, j].
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = null;
+            size--;
+            return removed;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void resize() {
+            String[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new String[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int indexFor(String key, int mask) {
+            int h = key.hashCode() * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    // --- Example usage ---
+    public static void main(String[] args) {
+        Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+        sizes.put(Size.SMALL, 20000);
+        sizes.put(Size.MEDIUM, 10000);
+        sizes.put(Size.LARGE, 5000);
+        CompactPickupLocation site = new CompactPickupLocation(sizes);
+
+        Package small = new Package(Size.SMALL);
+        Package large = new Package(Size.LARGE);
+        int l1 = site.assignPackage(small);
+        int l2 = site.assignPackage(large);
+        System.out.println("Small package in locker " + l1 + " (" + site.sizeOf(l1) + ")");
+        System.out.println("Large package in locker " + l2 + " (" + site.sizeOf(l2) + ")");
+        System.out.println("Free LARGE lockers: " + site.freeCount(Size.LARGE));
+        System.out.println("Picked up: " + (site.getPackage(large.getId()) == large));
+        System.out.println("Free LARGE lockers: " + site.freeCount(Size.LARGE));
+    }
+}
@@ -0,0 +1,383 @@
+package AmazonLocker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * PickupLocation whose state survives restarts.
+ *
+ * Every successful assign and pickup is appended to a memory-mapped journal
+ * (journal-<generation>.log). A background committer forces the mapping to
+ * disk; callers block until their record is durable, and all callers that
+ * arrive while a force is running share the next one (group commit).
+ * Every 'snapshotEvery' records the occupied lockers are written to a compact
+ * binary snapshot (snapshot.bin, replaced atomically) and a fresh journal
+ * generation is started, so the log never grows without bound.
+ *
+ * Recovery loads the snapshot, replays the journals written after it, and
+ * rebuilds the site in one pass over its lockers.
+ *
+ * Journal record:  int length | byte type | int locker | byte size | short idLength | id (UTF-8) | int crc
+ * Snapshot:        int magic | long nextGeneration | int count | count x (int locker | byte size | short idLength | id)
+ */
+class DurablePickupLocation implements AutoCloseable {
+
+    private static final int SNAPSHOT_MAGIC = 0x4C4B5331; // "LKS1"
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final long CHUNK = 16L << 20;
+    private static final byte ASSIGN = 1;
+    private static final byte RETRIEVE = 2;
+    private static final int CHUNK_END = -1;
+    private static final int RECORD_OVERHEAD = 16;   // every journal record field but the id
+    private static final int MAX_ID_BYTES = 1024 - RECORD_OVERHEAD;
+
+    private final Path dir;
+    private final PickupLocation location;
+    private final int snapshotEvery;
+
+    // Journal state, guarded by 'this'.
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer chunk;
+    private long chunkOffset;
+    private int recordsSinceSnapshot;
+
+    // Group commit: bytes appended vs. bytes known durable (monotonic across generations).
+    private volatile long written;  // only advanced under 'this'
+    private long durable;           // guarded by commitMonitor
+    private final Object commitMonitor = new Object();
+    private final Thread committer;
+    private volatile boolean closed;
+
+    private final ByteBuffer record = ByteBuffer.allocate(1024);
+    private final CRC32 crc = new CRC32();
+
+    private DurablePickupLocation(Path dir, PickupLocation location, long generation, int snapshotEvery)
+            throws IOException {
+        this.dir = dir;
+        this.location = location;
+        this.snapshotEvery = snapshotEvery;
+        this.generation = generation;
+        // Start from a clean slate: snapshot the recovered state and open a new journal.
+        snapshotAndRoll();
+        committer = new Thread(this::commitLoop, "locker-journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Opens (or creates) the durable site stored in 'dir'. The locker layout must
+     * match the one the site was created with.
+     */
+    public static DurablePickupLocation open(Path dir, Map<Size, Integer> lockerSizes, int snapshotEvery)
+            throws IOException {
+        Files.createDirectories(dir);
+        Map<Integer, Package> occupied = new HashMap<>();
+        long generation = readSnapshot(dir.resolve(SNAPSHOT_FILE), occupied);
+        long last = generation;
+        for (long gen : journalGenerations(dir)) {
+            if (gen < generation) {
+                Files.deleteIfExists(journalPath(dir, gen)); // already folded into the snapshot
+            } else {
+                replay(journalPath(dir, gen), occupied);
+                last = gen;
+            }
+        }
+        PickupLocation location = new PickupLocation(lockerSizes, occupied);
+        return new DurablePickupLocation(dir, location, last + 1, snapshotEvery);
+    }
+
+    /** Assigns and journals p. Package ids longer than MAX_ID_BYTES in UTF-8 are rejected. */
+    public Locker assignPackage(Package p) {
+        if (p.getId().getBytes(StandardCharsets.UTF_8).length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Package id longer than " + MAX_ID_BYTES + " bytes");
+        }
+        long position;
+        Locker locker;
+        synchronized (this) {
+            ensureOpen();
+            locker = location.assignPackage(p);
+            if (locker == null) return null;
+            position = append(ASSIGN, locker.getNumber(), p);
+        }
+        awaitDurable(position);
+        return locker;
+    }
+
+    public Package getPackage(String packageId) {
+        long position;
+        Package p;
+        synchronized (this) {
+            ensureOpen();
+            Locker locker = location.packageLoc.get(packageId);
+            if (locker == null) return null;
+            p = location.getPackage(packageId);
+            if (p == null) return null;
+            position = append(RETRIEVE, locker.getNumber(), p);
+        }
+        awaitDurable(position);
+        return p;
+    }
+
+    PickupLocation getLocation() {
+        return location;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            chunk.force();
+            channel.close();
+        }
+        synchronized (commitMonitor) {
+            durable = written;
+            commitMonitor.notifyAll();
+        }
+        committer.interrupt();
+    }
+
+    // --- Journal writing ---
+
+    // Appends one record and returns the logical end position callers must wait for.
+    private long append(byte type, int lockerNo, Package p) {
+        byte[] id = p.getId().getBytes(StandardCharsets.UTF_8);
+        record.clear();
+        record.putInt(0); // length, patched below
+        record.put(type).putInt(lockerNo).put((byte) p.getSize().getNumVal());
+        record.putShort((short) id.length).put(id);
+        crc.reset();
+        crc.update(record.array(), 4, record.position() - 4);
+        record.putInt((int) crc.getValue());
+        record.putInt(0, record.position());
+        record.flip();
+        int length = record.remaining();
+        try {
+            if (chunk.remaining() < length) {
+                if (chunk.remaining() >= 4) chunk.putInt(CHUNK_END);
+                chunk.force();
+                chunkOffset += CHUNK;
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkOffset, CHUNK);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.put(record);
+        written += length;
+        long position = written;
+        if (++recordsSinceSnapshot >= snapshotEvery) {
+            try {
+                snapshotAndRoll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return position;
+    }
+
+    private void awaitDurable(long position) {
+        synchronized (commitMonitor) {
+            commitMonitor.notifyAll(); // wake the committer
+            while (durable < position && !closed) {
+                try {
+                    commitMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted before the journal was flushed", e);
+                }
+            }
+        }
+    }
+
+    private void commitLoop() {
+        while (!closed) {
+            long target;
+            MappedByteBuffer toForce;
+            synchronized (commitMonitor) {
+                while (durable >= written && !closed) {
+                    try {
+                        commitMonitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            synchronized (this) {
+                if (closed) return;
+                target = written;
+                toForce = chunk;
+            }
+            // One force covers every record appended so far (earlier chunks were forced when full).
+            toForce.force();
+            synchronized (commitMonitor) {
+                if (target > durable) durable = target;
+                commitMonitor.notifyAll();
+            }
+        }
+    }
+
+    /** Writes the current state to snapshot.bin and starts a new journal generation. */
+    private void snapshotAndRoll() throws IOException {
+        long nextGeneration = generation;
+        List<Locker> occupied = new ArrayList<>(location.packageLoc.values());
+        int size = 16;
+        for (Locker locker : occupied) {
+            size += 7 + locker.peekPackage().getId().length() * 3;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(SNAPSHOT_MAGIC).putLong(nextGeneration).putInt(occupied.size());
+        for (Locker locker : occupied) {
+            Package p = locker.peekPackage();
+            byte[] id = p.getId().getBytes(StandardCharsets.UTF_8);
+            buf.putInt(locker.getNumber()).put((byte) p.getSize().getNumVal());
+            buf.putShort((short) id.length).put(id);
+        }
+        buf.flip();
+        Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) out.write(buf);
+            out.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        // The snapshot now covers everything in the old journal.
+        if (channel != null) {
+            channel.close();
+            Files.deleteIfExists(journalPath(dir, generation - 1));
+        }
+        channel = FileChannel.open(journalPath(dir, nextGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        chunkOffset = 0;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK);
+        generation = nextGeneration + 1;
+        recordsSinceSnapshot = 0;
+        synchronized (commitMonitor) {
+            durable = written;
+            commitMonitor.notifyAll();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Pickup location is closed");
+    }
+
+    // --- Recovery ---
+
+    // Returns the journal generation to replay from (0 if there is no snapshot).
+    private static long readSnapshot(Path file, Map<Integer, Package> occupied) throws IOException {
+        if (!Files.exists(file)) return 0;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buf.getInt() != SNAPSHOT_MAGIC) throw new IOException("Not a locker snapshot: " + file);
+        long generation = buf.getLong();
+        int count = buf.getInt();
+        Size[] sizes = Size.values();
+        for (int i = 0; i < count; i++) {
+            int lockerNo = buf.getInt();
+            Size size = sizes[buf.get()];
+            byte[] id = new byte[buf.getShort()];
+            buf.get(id);
+            occupied.put(lockerNo, new Package(size, new String(id, StandardCharsets.UTF_8)));
+        }
+        return generation;
+    }
+
+    // Applies records until the end of the log or the first torn/corrupt record.
+    private static void replay(Path journal, Map<Integer, Package> occupied) throws IOException {
+        Size[] sizes = Size.values();
+        CRC32 crc = new CRC32();
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ)) {
+            for (long offset = 0; offset < ch.size(); offset += CHUNK) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(CHUNK, ch.size() - offset));
+                while (true) {
+                    if (buf.remaining() < 4) break;           // rest of chunk unused
+                    int start = buf.position();
+                    int length = buf.getInt();
+                    if (length == CHUNK_END) break;            // writer moved to the next chunk
+                    if (length < RECORD_OVERHEAD || length > buf.remaining() + 4) return; // end of log
+                    // Check the whole record before decoding any of it: a torn tail can hold anything.
+                    crc.reset();
+                    crc.update(buf.slice(start + 4, length - 8));
+                    if ((int) crc.getValue() != buf.getInt(start + length - 4)) return; // torn write
+                    byte type = buf.get();
+                    int lockerNo = buf.getInt();
+                    int sizeIndex = buf.get();
+                    int idLength = buf.getShort();
+                    if (sizeIndex < 0 || sizeIndex >= sizes.length || idLength != length - RECORD_OVERHEAD) return;
+                    Size size = sizes[sizeIndex];
+                    byte[] id = new byte[idLength];
+                    buf.get(id);
+                    buf.position(start + length);
+                    if (type == ASSIGN) {
+                        occupied.put(lockerNo, new Package(size, new String(id, StandardCharsets.UTF_8)));
+                    } else {
+                        occupied.remove(lockerNo);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Long> journalGenerations(Path dir) throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "journal-*.log")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                gens.add(Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length())));
+            }
+        }
+        Collections.sort(gens);
+        return gens;
+    }
+
+    private static Path journalPath(Path dir, long generation) {
+        return dir.resolve("journal-" + generation + ".log");
+    }
+
+    // --- Example usage: fill a 100k-locker site, "crash", recover ---
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("lockers");
+        Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+        sizes.put(Size.SMALL, 50000);
+        sizes.put(Size.MEDIUM, 30000);
+        sizes.put(Size.LARGE, 20000);
+
+        List<String> ids = new ArrayList<>();
+        try (DurablePickupLocation site = open(dir, sizes, 50000)) {
+            for (int i = 0; i < 80000; i++) {
+                Package p = new Package(Size.values()[i % 3]);
+                if (site.assignPackage(p) != null) ids.add(p.getId());
+            }
+            for (int i = 0; i < 10000; i++) {
+                site.getPackage(ids.get(i));
+            }
+        }
+
+        long start = System.nanoTime();
+        try (DurablePickupLocation site = open(dir, sizes, 50000)) {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Recovered " + site.getLocation().packageLoc.size()
+                    + " occupied lockers in " + millis + " ms");
+            System.out.println("Picked up after restart: " + (site.getPackage(ids.get(ids.size() - 1)) != null));
+        }
+    }
+}
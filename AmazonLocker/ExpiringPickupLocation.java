@@ -0,0 +1,158 @@
+package AmazonLocker;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * PickupLocation with pickup deadlines.
+ *
+ * assignPackage takes a deadline; a package still in its locker when the
+ * deadline passes is taken out, its locker goes back to the available pool,
+ * and the package is handed to the expiry listener (e.g. for return-to-sender).
+ * Deadlines live in a TimingWheel, so scheduling and cancelling one is O(1)
+ * and expiring never scans the site.
+ *
+ * Time is driven by expire(nowMillis), either from the caller's own clock or
+ * from the background ticker started with start(). Deadlines are never fired
+ * early; they fire at most one tick late.
+ */
+class ExpiringPickupLocation implements AutoCloseable {
+
+    private final PickupLocation location;
+    private final long tickMillis;
+    private final long originMillis;
+    private final Consumer<Package> onExpired;
+    private final TimingWheel<Package> wheel;   // guarded by 'this'
+    private final Map<String, TimingWheel.Timeout<Package>> deadlines = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    /**
+     * @param tickMillis resolution of deadlines
+     * @param onExpired  called with each expired package, outside any lock
+     */
+    public ExpiringPickupLocation(Map<Size, Integer> lockerSizes, long tickMillis, Consumer<Package> onExpired) {
+        this(lockerSizes, tickMillis, System.currentTimeMillis(), onExpired);
+    }
+
+    ExpiringPickupLocation(Map<Size, Integer> lockerSizes, long tickMillis, long originMillis,
+                           Consumer<Package> onExpired) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        this.location = new PickupLocation(lockerSizes);
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.onExpired = onExpired;
+        this.wheel = new TimingWheel<>(0);
+    }
+
+    /** Assigns the package and schedules its pickup deadline (epoch millis). Returns null if no locker fits. */
+    public Locker assignPackage(Package p, long deadlineMillis) {
+        Locker locker = location.assignPackage(p);
+        if (locker == null || locker.peekPackage() != p) return locker;
+        // Round up so a deadline never fires early.
+        long tick = Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis);
+        synchronized (this) {
+            // Registered under the lock so expire() always finds the handle it fires.
+            deadlines.put(p.getId(), wheel.schedule(p, tick));
+        }
+        return locker;
+    }
+
+    public Package getPackage(String packageId) {
+        Package p = location.getPackage(packageId);
+        if (p != null) {
+            TimingWheel.Timeout<Package> timeout = deadlines.remove(packageId);
+            if (timeout != null) {
+                synchronized (this) {
+                    wheel.cancel(timeout);
+                }
+            }
+        }
+        return p;
+    }
+
+    /** Expires every package whose deadline is at or before nowMillis. Returns how many were expired. */
+    public int expire(long nowMillis) {
+        List<Package> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(Math.floorDiv(nowMillis - originMillis, tickMillis), due::add);
+        }
+        int expired = 0;
+        for (Package p : due) {
+            TimingWheel.Timeout<Package> timeout = deadlines.get(p.getId());
+            if (timeout == null || timeout.item != p || !deadlines.remove(p.getId(), timeout)) continue;
+            // Loses cleanly to a customer picking the package up at the same moment.
+            if (location.getPackage(p.getId()) == null) continue;
+            expired++;
+            onExpired.accept(p);
+        }
+        return expired;
+    }
+
+    /** Starts a daemon thread that calls expire() once per tick using the system clock. */
+    public synchronized void start() {
+        if (ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "locker-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> expire(System.currentTimeMillis()), tickMillis, tickMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    public synchronized int pendingDeadlines() {
+        return wheel.size();
+    }
+
+    public PickupLocation getLocation() {
+        return location;
+    }
+
+    // --- Example usage: one million deadlines on a simulated clock ---
+    public static void main(String[] args) {
+        Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+        sizes.put(Size.SMALL, 400000);
+        sizes.put(Size.MEDIUM, 350000);
+        sizes.put(Size.LARGE, 350000);
+        long day = 24L * 60 * 60 * 1000;
+        int[] returned = new int[1];
+        ExpiringPickupLocation site = new ExpiringPickupLocation(sizes, 1000, 0, p -> returned[0]++);
+
+        Package[] packages = new Package[1000000];
+        long start = System.nanoTime();
+        for (int i = 0; i < packages.length; i++) {
+            packages[i] = new Package(Size.values()[i % 3], "P" + i);
+            // Deadlines spread over three days.
+            site.assignPackage(packages[i], (i % 3 + 1) * day - (i % 1000) * 1000L);
+        }
+        System.out.println("Scheduled " + site.pendingDeadlines() + " deadlines in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+
+        // Half the packages are picked up on time.
+        for (int i = 0; i < packages.length; i += 2) site.getPackage(packages[i].getId());
+
+        start = System.nanoTime();
+        for (int d = 1; d <= 3; d++) {
+            int n = site.expire(d * day);
+            System.out.println("Day " + d + ": " + n + " packages returned to sender");
+        }
+        System.out.println("Expired " + returned[0] + " in " + (System.nanoTime() - start) / 1000000
+                + " ms; pending " + site.pendingDeadlines() + ", free SMALL lockers "
+                + site.getLocation().availableLockers.get(Size.SMALL).size());
+    }
+}
@@ -0,0 +1,362 @@
+package AmazonLocker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Routes packages across many PickupLocations to the nearest site that still
+ * has a locker the package fits in.
+ *
+ * Sites are bucketed into a uniform grid. Each site keeps a free-locker count
+ * per Size, and each grid cell keeps, per Size, how many of its sites have at
+ * least one free locker of that size. Both are updated incrementally on every
+ * assign and pickup, so routing only visits cells in rings around the customer
+ * and skips cells with nothing that fits, instead of scanning every site.
+ *
+ * When sites are spread so thinly that the bounding box holds far more empty
+ * cells than occupied ones, no dense grid is built: the occupied cells go
+ * into a k-d tree instead, searched nearer half first and skipping every
+ * subtree farther away than the best site so far. Memory stays bounded by the
+ * number of cells with sites, and routing visits only the cells near the
+ * customer.
+ *
+ * Assignments and pickups must go through the network for the counts to stay
+ * accurate. Methods are synchronized; the sites themselves are thread-safe.
+ */
+class LockerNetwork {
+
+    // The dense grid may have at most this many cells per occupied cell, beyond a small floor.
+    private static final long MAX_CELLS_PER_OCCUPIED = 16;
+    private static final long MIN_GRID_CELLS = 1 << 16;
+
+    private final double cellSize;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<String, Site> sites = new HashMap<>();
+    private final Map<String, Assignment> assignments = new HashMap<>();
+    // Bounding box of occupied cells, so ring search knows when to stop.
+    private int minCx = Integer.MAX_VALUE, maxCx = Integer.MIN_VALUE;
+    private int minCy = Integer.MAX_VALUE, maxCy = Integer.MIN_VALUE;
+    // Dense row-major copy of 'cells' over the bounding box; rebuilt after sites are added.
+    // Null while stale, or when the box is too sparse for it (then routing uses the k-d tree).
+    private Cell[] grid;
+    private int gridWidth;
+    private boolean gridBuilt;
+    // Sparse layouts: occupied cells as an implicit k-d tree. The middle cell of a range
+    // [lo, hi) splits it, on x at even depths and on y at odd ones; kdBox holds, at that
+    // middle index, the bounds of the whole range (minCx, maxCx, minCy, maxCy).
+    private Cell[] kdCells;
+    private int[] kdBox;
+    // Best match so far while searching the tree.
+    private Site nearest;
+    private double nearestDist;
+
+    /** @param cellSize grid cell edge length, in the same unit as site coordinates. */
+    public LockerNetwork(double cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+        this.cellSize = cellSize;
+    }
+
+    public synchronized Site addSite(String id, double x, double y, Map<Size, Integer> lockerSizes) {
+        if (sites.containsKey(id)) throw new IllegalArgumentException("Duplicate site " + id);
+        int cx = cellOf(x), cy = cellOf(y);
+        Cell cell = cells.computeIfAbsent(key(cx, cy), k -> new Cell(cx, cy));
+        Site site = new Site(id, x, y, new PickupLocation(lockerSizes), cell);
+        for (Size sz : Size.values()) {
+            site.free[sz.getNumVal()] = lockerSizes.getOrDefault(sz, 0);
+            if (site.free[sz.getNumVal()] > 0) cell.sitesWithFree[sz.getNumVal()]++;
+        }
+        cell.sites.add(site);
+        sites.put(id, site);
+        minCx = Math.min(minCx, cx);
+        maxCx = Math.max(maxCx, cx);
+        minCy = Math.min(minCy, cy);
+        maxCy = Math.max(maxCy, cy);
+        grid = null;
+        kdCells = null;
+        gridBuilt = false;
+        return site;
+    }
+
+    /**
+     * Places the package at the nearest site with a fitting free locker.
+     * Returns null if no site in the network can take it.
+     */
+    public synchronized Assignment assignPackage(Package p, double x, double y) {
+        if (sites.isEmpty()) return null;
+        if (!gridBuilt) buildGrid();
+        int minSize = p.getSize().getNumVal();
+        while (true) {
+            Site best = grid != null ? nearestByRings(minSize, x, y) : nearestInTree(minSize, x, y);
+            if (best == null) return null;
+            Locker locker = best.location.assignPackage(p);
+            if (locker != null) {
+                best.adjust(locker.getSize(), -1);
+                Assignment assignment = new Assignment(best, locker);
+                assignments.put(p.getId(), assignment);
+                return assignment;
+            }
+            // Counts drifted (the site was used directly); resync it and route again.
+            best.resync();
+        }
+    }
+
+    private Site nearestByRings(int minSize, double x, double y) {
+        // Clamped so that a customer far outside the box starts at its edge instead of walking empty rings.
+        long ccx = Math.max(minCx, Math.min(maxCx, (long) Math.floor(x / cellSize)));
+        long ccy = Math.max(minCy, Math.min(maxCy, (long) Math.floor(y / cellSize)));
+        int cx = (int) ccx, cy = (int) ccy;
+        int maxRing = Math.max(Math.max(cx - minCx, maxCx - cx), Math.max(cy - minCy, maxCy - cy));
+        // How far the customer is outside the box on each axis (0 if inside).
+        double offX = Math.max(0, Math.max(minCx * cellSize - x, x - (maxCx + 1) * cellSize));
+        double offY = Math.max(0, Math.max(minCy * cellSize - y, y - (maxCy + 1) * cellSize));
+        Site best = null;
+        double bestDist = Double.MAX_VALUE;
+        for (int r = 0; r <= maxRing; r++) {
+            // Every point in ring r is at least (r - 1) cells further out than the box edge on one axis.
+            double far = Math.max(0, r - 1) * cellSize;
+            double ringMin = Math.min((offX + far) * (offX + far) + offY * offY,
+                    offX * offX + (offY + far) * (offY + far));
+            if (best != null && ringMin > bestDist) break;
+            for (int dx = -r; dx <= r; dx++) {
+                // Only the border of the (2r+1) x (2r+1) square belongs to ring r.
+                int step = (dx == -r || dx == r) ? 1 : 2 * r;
+                for (int dy = -r; dy <= r; dy += step) {
+                    Cell cell = cellAt(cx + dx, cy + dy);
+                    if (cell == null || !cell.fits(minSize)) continue;
+                    for (Site site : cell.sites) {
+                        if (!site.fits(minSize)) continue;
+                        double ddx = site.x - x, ddy = site.y - y;
+                        double dist = ddx * ddx + ddy * ddy;
+                        if (dist < bestDist) {
+                            bestDist = dist;
+                            best = site;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Sparse fallback: nearest-neighbour search over the k-d tree of occupied cells.
+    private Site nearestInTree(int minSize, double x, double y) {
+        nearest = null;
+        nearestDist = Double.MAX_VALUE;
+        searchTree(0, kdCells.length, 0, minSize, x, y);
+        Site best = nearest;
+        nearest = null;
+        return best;
+    }
+
+    private void searchTree(int lo, int hi, int depth, int minSize, double x, double y) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int b = mid * 4;
+        if (boxDistance(kdBox[b], kdBox[b + 1], kdBox[b + 2], kdBox[b + 3], x, y) > nearestDist) return;
+        Cell cell = kdCells[mid];
+        if (cell.fits(minSize) && boxDistance(cell.cx, cell.cx, cell.cy, cell.cy, x, y) <= nearestDist) {
+            for (Site site : cell.sites) {
+                if (!site.fits(minSize)) continue;
+                double ddx = site.x - x, ddy = site.y - y;
+                double dist = ddx * ddx + ddy * ddy;
+                if (dist < nearestDist) {
+                    nearestDist = dist;
+                    nearest = site;
+                }
+            }
+        }
+        // The half on the customer's side first, so the other is more often pruned.
+        boolean lowFirst = (depth & 1) == 0 ? x < (cell.cx + 0.5) * cellSize : y < (cell.cy + 0.5) * cellSize;
+        if (lowFirst) {
+            searchTree(lo, mid, depth + 1, minSize, x, y);
+            searchTree(mid + 1, hi, depth + 1, minSize, x, y);
+        } else {
+            searchTree(mid + 1, hi, depth + 1, minSize, x, y);
+            searchTree(lo, mid, depth + 1, minSize, x, y);
+        }
+    }
+
+    // Squared distance from (x, y) to the cells [minCx, maxCx] x [minCy, maxCy].
+    private double boxDistance(int minCx, int maxCx, int minCy, int maxCy, double x, double y) {
+        double gx = Math.max(0, Math.max(minCx * cellSize - x, x - (maxCx + 1) * cellSize));
+        double gy = Math.max(0, Math.max(minCy * cellSize - y, y - (maxCy + 1) * cellSize));
+        return gx * gx + gy * gy;
+    }
+
+    public synchronized Package getPackage(String packageId) {
+        Assignment assignment = assignments.remove(packageId);
+        if (assignment == null) return null;
+        Package p = assignment.site.location.getPackage(packageId);
+        // The locker may be larger than the package, so free the locker's size.
+        if (p != null) assignment.site.adjust(assignment.locker.getSize(), +1);
+        return p;
+    }
+
+    public synchronized int siteCount() {
+        return sites.size();
+    }
+
+    private void buildGrid() {
+        gridBuilt = true;
+        long width = (long) maxCx - minCx + 1, area = width * ((long) maxCy - minCy + 1);
+        // Worth it only while empty cells do not swamp occupied ones; the ring walk costs up to 'area' too.
+        if (area > MAX_CELLS_PER_OCCUPIED * cells.size() + MIN_GRID_CELLS) {
+            grid = null;
+            kdCells = cells.values().toArray(new Cell[0]);
+            kdBox = new int[kdCells.length * 4];
+            buildTree(0, kdCells.length, 0);
+            return;
+        }
+        gridWidth = (int) width;
+        grid = new Cell[(int) area];
+        for (Map.Entry<Long, Cell> e : cells.entrySet()) {
+            int cx = (int) (e.getKey() >> 32), cy = (int) (long) e.getKey();
+            grid[(cy - minCy) * gridWidth + (cx - minCx)] = e.getValue();
+        }
+    }
+
+    // Orders kdCells[lo, hi) around its middle cell and records each range's bounds.
+    private void buildTree(int lo, int hi, int depth) {
+        if (lo >= hi) return;
+        Comparator<Cell> axis = (depth & 1) == 0
+                ? Comparator.comparingInt((Cell c) -> c.cx) : Comparator.comparingInt((Cell c) -> c.cy);
+        Arrays.sort(kdCells, lo, hi, axis);
+        int mid = (lo + hi) >>> 1;
+        buildTree(lo, mid, depth + 1);
+        buildTree(mid + 1, hi, depth + 1);
+        int b = mid * 4;
+        kdBox[b] = kdBox[b + 1] = kdCells[mid].cx;
+        kdBox[b + 2] = kdBox[b + 3] = kdCells[mid].cy;
+        if (lo < mid) include(b, (lo + mid) >>> 1);
+        if (mid + 1 < hi) include(b, (mid + 1 + hi) >>> 1);
+    }
+
+    // Widens the bounds at kdBox[b] to cover the range whose middle is child.
+    private void include(int b, int child) {
+        int c = child * 4;
+        kdBox[b] = Math.min(kdBox[b], kdBox[c]);
+        kdBox[b + 1] = Math.max(kdBox[b + 1], kdBox[c + 1]);
+        kdBox[b + 2] = Math.min(kdBox[b + 2], kdBox[c + 2]);
+        kdBox[b + 3] = Math.max(kdBox[b + 3], kdBox[c + 3]);
+    }
+
+    private Cell cellAt(int cx, int cy) {
+        if (cx < minCx || cx > maxCx || cy < minCy || cy > maxCy) return null;
+        return grid[(cy - minCy) * gridWidth + (cx - minCx)];
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /** A pickup location plus its position and free-locker summary. */
+    static final class Site {
+        private final String id;
+        private final double x, y;
+        private final PickupLocation location;
+        private final Cell cell;
+        private final int[] free = new int[Size.values().length];
+
+        Site(String id, double x, double y, PickupLocation location, Cell cell) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.location = location;
+            this.cell = cell;
+        }
+
+        String getId() { return id; }
+        PickupLocation getLocation() { return location; }
+
+        boolean fits(int minSize) {
+            for (int s = minSize; s < free.length; s++) {
+                if (free[s] > 0) return true;
+            }
+            return false;
+        }
+
+        void adjust(Size sz, int delta) {
+            setFree(sz.getNumVal(), free[sz.getNumVal()] + delta);
+        }
+
+        // Recounts from the site's queues; only needed if the site was used directly.
+        void resync() {
+            for (Size sz : Size.values()) {
+                setFree(sz.getNumVal(), location.availableLockers.get(sz).size());
+            }
+        }
+
+        private void setFree(int s, int value) {
+            if (free[s] > 0 && value == 0) cell.sitesWithFree[s]--;
+            if (free[s] == 0 && value > 0) cell.sitesWithFree[s]++;
+            free[s] = value;
+        }
+    }
+
+    static final class Cell {
+        final int cx, cy;
+        final List<Site> sites = new ArrayList<>();
+        final int[] sitesWithFree = new int[Size.values().length];
+
+        Cell(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+
+        boolean fits(int minSize) {
+            for (int s = minSize; s < sitesWithFree.length; s++) {
+                if (sitesWithFree[s] > 0) return true;
+            }
+            return false;
+        }
+    }
+
+    static final class Assignment {
+        private final Site site;
+        private final Locker locker;
+
+        Assignment(Site site, Locker locker) {
+            this.site = site;
+            this.locker = locker;
+        }
+
+        Site getSite() { return site; }
+        Locker getLocker() { return locker; }
+    }
+
+    // --- Example usage: 10k sites over a 100 x 100 km metro area ---
+    public static void main(String[] args) {
+        LockerNetwork network = new LockerNetwork(1.0);
+        Random random = new Random(7);
+        Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+        sizes.put(Size.SMALL, 2);
+        sizes.put(Size.MEDIUM, 1);
+        sizes.put(Size.LARGE, 1);
+        for (int i = 0; i < 10000; i++) {
+            network.addSite("S" + i, random.nextDouble() * 100, random.nextDouble() * 100, sizes);
+        }
+
+        Package[] packages = new Package[20000];
+        for (int i = 0; i < packages.length; i++) {
+            packages[i] = new Package(Size.values()[random.nextInt(3)]);
+        }
+        int routed = 0;
+        long start = System.nanoTime();
+        for (Package p : packages) {
+            if (network.assignPackage(p, random.nextDouble() * 100, random.nextDouble() * 100) != null) routed++;
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+        System.out.println("Routed " + routed + " packages across " + network.siteCount()
+                + " sites, avg " + ((double) micros / packages.length) + " us per package");
+    }
+}
@@ -0,0 +1,25 @@
+package AmazonLocker;
+
+import java.util.UUID;
+
+class Package {
+    private final Size packageSize;
+    private final String packageId;
+
+    Package(Size size) {
+        this(size, UUID.randomUUID().toString());
+    }
+
+    Package(Size size, String packageId) {
+        this.packageSize = size;
+        this.packageId = packageId;
+    }
+
+    Size getSize() {
+        return packageSize;
+    }
+
+    String getId() {
+        return packageId;
+    }
+}
@@ -0,0 +1,89 @@
+package AmazonLocker;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe: kiosks and couriers may call assignPackage and getPackage concurrently.
+ * Each size has a lock-free queue of free lockers; a locker is handed out only by
+ * a successful poll(), so it can never be assigned twice.
+ */
+class PickupLocation {
+
+    Map<Size, Queue<Locker>> availableLockers;
+    Map<String, Locker> packageLoc;
+
+    public PickupLocation(Map<Size, Integer> lockerSizes) {
+        this(lockerSizes, Collections.emptyMap());
+    }
+
+    /**
+     * Rebuilds a site with some lockers already occupied, keyed by locker number.
+     * Lockers are numbered densely in Size order (all SMALL, then MEDIUM, then LARGE),
+     * so the same lockerSizes always produce the same numbering.
+     */
+    PickupLocation(Map<Size, Integer> lockerSizes, Map<Integer, Package> occupied) {
+        availableLockers = new EnumMap<>(Size.class);
+        packageLoc = new ConcurrentHashMap<>();
+        // Initialize lockers; every size gets a queue so lookups never miss.
+        int number = 0;
+        for (Size sz : Size.values()) {
+            Queue<Locker> lockerQ = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < lockerSizes.getOrDefault(sz, 0); i++) {
+                Locker locker = new Locker(sz, number);
+                Package p = occupied.get(number++);
+                if (p == null) {
+                    lockerQ.add(locker);
+                } else {
+                    locker.assignPackage(p);
+                    packageLoc.put(p.getId(), locker);
+                }
+            }
+            availableLockers.put(sz, lockerQ);
+        }
+    }
+
+    public Locker assignPackage(Package p) {
+        for (Size sz : Size.values()) {
+            // Don't try to assign package to a smaller size
+            if (sz.getNumVal() < p.getSize().getNumVal()) continue;
+            Locker assignedLocker = assignLocker(p, sz);
+            // There is a locker found for the package
+            if (assignedLocker != null) return assignedLocker;
+            // Continue with one size larger
+        }
+        return null;
+    }
+
+    public Package getPackage(String packageId) {
+        // remove() is atomic, so only one caller gets the locker back.
+        Locker locker = packageLoc.remove(packageId);
+        if (locker == null)
+            return null;
+        Package p = locker.emptyLocker();
+        // Put the locker back in the available queue
+        availableLockers.get(locker.getSize()).offer(locker);
+        return p;
+    }
+
+    private Locker assignLocker(Package p, Size sz) {
+        // Remove locker from the available queue
+        Locker lockerToAssign = availableLockers.get(sz).poll();
+        if (lockerToAssign == null)
+            return null;
+        lockerToAssign.assignPackage(p);
+        // The map publishes the locker contents to whichever thread retrieves the package.
+        Locker existing = packageLoc.putIfAbsent(p.getId(), lockerToAssign);
+        if (existing != null) {
+            // The same package was assigned concurrently; keep the first locker.
+            lockerToAssign.emptyLocker();
+            availableLockers.get(sz).offer(lockerToAssign);
+            return existing;
+        }
+        return lockerToAssign;
+    }
+}
@@ -0,0 +1,627 @@
+package InventoryManagement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import InventoryManagement.InventoryManager.InventoryRequest;
+
+/**
+ * Event-sourced, append-only record of every stock change.
+ *
+ * Each applied request becomes one record with the next sequence number in a
+ * memory-mapped segment file (ledger-<first seq>.log). Warehouse and product
+ * IDs are written once, as define records, and referenced by int index after
+ * that, so a stock event is 29 bytes on disk (33 for a transfer). Every 'snapshotEvery' events the
+ * stock of every warehouse is written to snapshot-<seq>.bin, one section per
+ * warehouse.
+ *
+ * open() rebuilds all warehouses from the newest snapshot plus the records
+ * after it. Snapshot sections and log segments are decoded in parallel, and
+ * the logged deltas are then applied in parallel with one thread per group
+ * of warehouses. Only applied requests are logged, so replay never re-checks
+ * stock. Segments and snapshots are kept, so stockAt can answer for any past
+ * sequence number.
+ *
+ * Stock here is on-hand stock: units held by a checkout still count, since
+ * holds live only in memory. Reserving and releasing leave it unchanged and
+ * are not logged; committing a hold is logged as a negative ADJUST, and
+ * snapshots write available plus reserved. A restart therefore returns any
+ * hold that was still open to available stock.
+ *
+ * Records are written after the change is applied to the warehouse. Callers
+ * hold the ledger's lock (synchronized on it) from a change through its
+ * record, as InventoryManager does; a snapshot is taken inside an append,
+ * under the same lock, so it never includes a change whose record would
+ * come after it and be replayed on top. sync() makes everything appended so
+ * far durable.
+ *
+ * Record:    int length | byte type | long seq | body | int crc
+ * Bodies:    WAREHOUSE/PRODUCT  int index | short length | UTF-8 id
+ *            ADD/REMOVE/ADJUST   int warehouse | int product | int quantity
+ *            TRANSFER            int warehouse | int product | int quantity | int target warehouse
+ * Snapshot:  int magic | long seq | int products | products x (short length | UTF-8 id)
+ *            | int warehouses | warehouses x (int sectionBytes | short length | UTF-8 id
+ *            | int entries | entries x (int product | int stock))
+ */
+class InventoryLedger implements AutoCloseable {
+
+    private static final int SNAPSHOT_MAGIC = 0x494E5631; // "INV1"
+    private static final long SEGMENT = 64L << 20;
+    private static final int SEGMENT_END = -1;
+    private static final byte WAREHOUSE = 1, PRODUCT = 2, ADD = 3, REMOVE = 4, TRANSFER = 5, ADJUST = 6;
+
+    private final Path dir;
+    private final int snapshotEvery;
+    private final ProductCatalog catalog;
+    private final List<Warehouse> warehouses;
+    private final Map<String, Integer> warehouseIndex = new HashMap<>();
+
+    private long seq;                  // last sequence number written
+    private int definedProducts;       // catalog handles below this have a define record
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int eventsSinceSnapshot;
+    private final ByteBuffer record = ByteBuffer.allocate(1 << 16);
+    private final CRC32 crc = new CRC32();
+
+    private InventoryLedger(Path dir, int snapshotEvery, ProductCatalog catalog, List<Warehouse> warehouses,
+                            long seq) throws IOException {
+        this.dir = dir;
+        this.snapshotEvery = snapshotEvery;
+        this.catalog = catalog;
+        this.warehouses = warehouses;
+        this.seq = seq;
+        this.definedProducts = catalog.size();
+        for (int i = 0; i < warehouses.size(); i++) warehouseIndex.put(warehouses.get(i).getId(), i);
+        // Always continue in a fresh segment, so a torn tail in the old one is never written over.
+        roll();
+    }
+
+    /**
+     * Opens (or creates) the ledger in 'dir' and rebuilds the warehouses it
+     * records, which share getCatalog().
+     */
+    public static InventoryLedger open(Path dir, int snapshotEvery) throws IOException {
+        Files.createDirectories(dir);
+        ProductCatalog catalog = new ProductCatalog();
+        List<Warehouse> warehouses = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long snapshotSeq = 0;
+            List<Long> snapshots = sequences(dir, "snapshot-", ".bin");
+            if (!snapshots.isEmpty()) {
+                snapshotSeq = snapshots.get(snapshots.size() - 1);
+                loadSnapshot(snapshotPath(dir, snapshotSeq), catalog, warehouses, pool);
+            }
+            long seq = replay(dir, snapshotSeq, catalog, warehouses, pool, threads);
+            return new InventoryLedger(dir, snapshotEvery, catalog, warehouses, seq);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /** Warehouses recovered or registered so far, in registration order. */
+    public synchronized List<Warehouse> getWarehouses() {
+        return new ArrayList<>(warehouses);
+    }
+
+    public synchronized long lastSequence() {
+        return seq;
+    }
+
+    /** Starts recording a warehouse. Register it before it receives any stock. */
+    public synchronized void register(Warehouse w) {
+        if (warehouseIndex.containsKey(w.getId())) return;
+        int index = warehouses.size();
+        warehouses.add(w);
+        warehouseIndex.put(w.getId(), index);
+        appendDefine(WAREHOUSE, index, w.getId());
+    }
+
+    /** Records a request that was applied (a rejected REMOVE or TRANSFER must not be logged). */
+    public synchronized void applied(InventoryRequest req) {
+        int warehouse = warehouseIndex(req.warehouseId);
+        int product = productIndex(req.productId);
+        switch (req.type) {
+            case ADD:
+                appendEvent(ADD, warehouse, product, req.quantity, -1);
+                break;
+            case REMOVE:
+                appendEvent(REMOVE, warehouse, product, req.quantity, -1);
+                break;
+            case TRANSFER:
+                appendEvent(TRANSFER, warehouse, product, req.quantity, warehouseIndex(req.targetWarehouseId));
+                break;
+        }
+    }
+
+    /** Records a net stock change, as written by processRequestsBatched. */
+    public synchronized void adjusted(Warehouse w, String productId, int delta) {
+        appendEvent(ADJUST, warehouseIndex(w.getId()), productIndex(productId), delta, -1);
+    }
+
+    /** Forces every record appended so far to disk. */
+    public synchronized void sync() {
+        segment.force();
+    }
+
+    /** Stock of a product in a warehouse right after record 'atSeq' was applied. */
+    public int stockAt(String warehouseId, String productId, long atSeq) throws IOException {
+        long upTo;
+        synchronized (this) {
+            upTo = Math.min(atSeq, seq);
+        }
+        long snapshotSeq = 0;
+        for (long s : sequences(dir, "snapshot-", ".bin")) {
+            if (s <= upTo) snapshotSeq = s;
+        }
+        // key[0] = warehouse index, key[1] = product index, once known; total[0] = running stock.
+        int[] key = {-1, -1};
+        long[] total = {0};
+        if (snapshotSeq > 0) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(snapshotPath(dir, snapshotSeq)));
+            buf.getInt();
+            buf.getLong();
+            int products = buf.getInt();
+            for (int p = 0; p < products; p++) {
+                if (readString(buf).equals(productId)) key[1] = p;
+            }
+            int count = buf.getInt();
+            for (int w = 0; w < count; w++) {
+                int sectionEnd = buf.position() + 4 + buf.getInt();
+                if (readString(buf).equals(warehouseId)) {
+                    key[0] = w;
+                    int entries = buf.getInt();
+                    for (int i = 0; i < entries; i++) {
+                        int product = buf.getInt();
+                        int stock = buf.getInt();
+                        if (product == key[1]) total[0] = stock;
+                    }
+                }
+                buf.position(sectionEnd);
+            }
+        }
+        long from = snapshotSeq;
+        boolean[] done = {false};
+        for (Path file : segmentsFrom(dir, from)) {
+            scan(file, (recordSeq, type, a, b, c, d, name) -> {
+                if (recordSeq > upTo) {
+                    done[0] = true;
+                    return false;
+                }
+                if (recordSeq <= from) return true;
+                if (type == WAREHOUSE && name.equals(warehouseId)) key[0] = a;
+                else if (type == PRODUCT && name.equals(productId)) key[1] = a;
+                else if (b == key[1] && key[1] >= 0) total[0] += delta(type, a, c, d, key[0]);
+                return true;
+            });
+            if (done[0]) break;
+        }
+        return (int) total[0];
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) return;
+        segment.force();
+        channel.close();
+        channel = null;
+    }
+
+    // --- Writing ---
+
+    private int warehouseIndex(String warehouseId) {
+        Integer index = warehouseIndex.get(warehouseId);
+        if (index == null) throw new IllegalArgumentException("Warehouse " + warehouseId + " is not registered");
+        return index;
+    }
+
+    private int productIndex(String productId) {
+        int index = catalog.intern(productId);
+        // Warehouses sharing the catalog may have interned products first; define
+        // every handle up to this one, in order, so replay assigns the same handles.
+        while (definedProducts <= index) {
+            appendDefine(PRODUCT, definedProducts, catalog.name(definedProducts));
+            definedProducts++;
+        }
+        return index;
+    }
+
+    private void appendDefine(byte type, int index, String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        begin(type).putInt(index).putShort((short) bytes.length).put(bytes);
+        finish();
+    }
+
+    private void appendEvent(byte type, int warehouse, int product, int quantity, int target) {
+        begin(type).putInt(warehouse).putInt(product).putInt(quantity);
+        if (type == TRANSFER) record.putInt(target);
+        finish();
+        if (++eventsSinceSnapshot >= snapshotEvery) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private ByteBuffer begin(byte type) {
+        record.clear();
+        record.putInt(0); // length, patched in finish()
+        return record.put(type).putLong(seq + 1);
+    }
+
+    private void finish() {
+        crc.reset();
+        crc.update(record.array(), 4, record.position() - 4);
+        record.putInt((int) crc.getValue());
+        record.putInt(0, record.position());
+        record.flip();
+        try {
+            // Keep room for the end marker, so a reader always finds one.
+            if (segment.remaining() < record.remaining() + 4) {
+                segment.putInt(SEGMENT_END);
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segment.put(record);
+        seq++;
+    }
+
+    private void roll() throws IOException {
+        if (channel != null) {
+            segment.force();
+            channel.close();
+        }
+        channel = FileChannel.open(segmentPath(dir, seq + 1), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT);
+    }
+
+    /** Writes every warehouse's stock as of 'seq' to snapshot-<seq>.bin. */
+    private void snapshot() throws IOException {
+        segment.force(); // the snapshot must never be ahead of the durable log
+        int products = catalog.size();
+        String[] names = new String[products];
+        long size = 20;
+        for (int p = 0; p < products; p++) {
+            names[p] = catalog.name(p);
+            size += 2 + names[p].length() * 3;
+        }
+        for (Warehouse w : warehouses) size += 10 + w.getId().length() * 3 + 8L * products;
+        ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(size));
+        buf.putInt(SNAPSHOT_MAGIC).putLong(seq).putInt(products);
+        for (String name : names) writeString(buf, name);
+        buf.putInt(warehouses.size());
+        for (Warehouse w : warehouses) {
+            int start = buf.position();
+            buf.putInt(0);
+            writeString(buf, w.getId());
+            int countAt = buf.position();
+            buf.putInt(0);
+            int entries = 0;
+            boolean shared = w.getCatalog() == catalog;
+            for (int p = 0; p < products; p++) {
+                int handle = shared ? p : w.getCatalog().find(names[p]);
+                int stock = handle < 0 ? 0 : w.getOnHand(handle);
+                if (stock != 0) {
+                    buf.putInt(p).putInt(stock);
+                    entries++;
+                }
+            }
+            buf.putInt(countAt, entries);
+            buf.putInt(start, buf.position() - start - 4);
+        }
+        buf.flip();
+        Path tmp = dir.resolve("snapshot.tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) out.write(buf);
+            out.force(true);
+        }
+        Files.move(tmp, snapshotPath(dir, seq), StandardCopyOption.ATOMIC_MOVE);
+        eventsSinceSnapshot = 0;
+    }
+
+    // --- Recovery ---
+
+    private static void loadSnapshot(Path file, ProductCatalog catalog, List<Warehouse> warehouses,
+                                     ExecutorService pool) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buf.getInt() != SNAPSHOT_MAGIC) throw new IOException("Not an inventory snapshot: " + file);
+        buf.getLong();
+        int products = buf.getInt();
+        for (int p = 0; p < products; p++) catalog.intern(readString(buf));
+        int count = buf.getInt();
+        List<Future<?>> sections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int length = buf.getInt();
+            ByteBuffer section = buf.slice(buf.position(), length);
+            buf.position(buf.position() + length);
+            Warehouse w = new Warehouse(readString(section), catalog);
+            warehouses.add(w);
+            sections.add(pool.submit(() -> {
+                int entries = section.getInt();
+                for (int e = 0; e < entries; e++) w.addStock(section.getInt(), section.getInt());
+            }));
+        }
+        await(sections);
+    }
+
+    // Rebuilds everything after snapshotSeq; returns the last sequence number found.
+    private static long replay(Path dir, long snapshotSeq, ProductCatalog catalog, List<Warehouse> warehouses,
+                               ExecutorService pool, int threads) throws IOException {
+        List<Path> files = segmentsFrom(dir, snapshotSeq);
+        List<Future<SegmentScan>> scans = new ArrayList<>();
+        for (Path file : files) scans.add(pool.submit(() -> SegmentScan.of(file, snapshotSeq)));
+
+        // Defines are applied in log order. A torn record ends its segment; the log
+        // goes on only if the next segment starts right after the last good record.
+        List<SegmentScan> valid = new ArrayList<>();
+        long seq = snapshotSeq;
+        for (int i = 0; i < files.size(); i++) {
+            SegmentScan scan = get(scans.get(i));
+            if (i == 0 && scan.first > seq + 1) throw new IOException("Ledger has no records after " + seq);
+            if (i > 0 && scan.first != seq + 1) {
+                // Written after an earlier torn tail was cut off; no longer part of the log.
+                for (Path stale : files.subList(i, files.size())) Files.deleteIfExists(stale);
+                break;
+            }
+            for (int d = 0; d < scan.defines.size(); d++) {
+                int index = scan.defineIndex.get(d);
+                String name = scan.defines.get(d);
+                if (scan.defineType.get(d) == WAREHOUSE) {
+                    if (index != warehouses.size()) throw new IOException("Ledger out of order at warehouse " + name);
+                    warehouses.add(new Warehouse(name, catalog));
+                } else if (catalog.intern(name) != index) {
+                    throw new IOException("Ledger out of order at product " + name);
+                }
+            }
+            valid.add(scan);
+            seq = Math.max(seq, scan.last);
+        }
+
+        // Deltas commute, so each thread applies the ones for its own warehouses.
+        Warehouse[] byIndex = warehouses.toArray(new Warehouse[0]);
+        List<Future<?>> parts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int part = t;
+            parts.add(pool.submit(() -> {
+                for (SegmentScan scan : valid) {
+                    int[] deltas = scan.deltas;
+                    for (int i = 0; i < scan.size; i += 3) {
+                        if (deltas[i] % threads == part) byIndex[deltas[i]].addStock(deltas[i + 1], deltas[i + 2]);
+                    }
+                }
+            }));
+        }
+        await(parts);
+        return seq;
+    }
+
+    /** Decoded contents of one segment: defines in order, plus (warehouse, product, delta) triples. */
+    private static final class SegmentScan {
+        long first = Long.MAX_VALUE, last;
+        final List<Byte> defineType = new ArrayList<>();
+        final List<Integer> defineIndex = new ArrayList<>();
+        final List<String> defines = new ArrayList<>();
+        int[] deltas = new int[3 * 1024];
+        int size;
+
+        static SegmentScan of(Path file, long after) throws IOException {
+            SegmentScan scan = new SegmentScan();
+            long[] expected = {-1};
+            scan(file, (recordSeq, type, a, b, c, d, name) -> {
+                if (expected[0] >= 0 && recordSeq != expected[0]) return false;
+                expected[0] = recordSeq + 1;
+                scan.first = Math.min(scan.first, recordSeq);
+                scan.last = recordSeq;
+                if (recordSeq <= after) return true;
+                if (type == WAREHOUSE || type == PRODUCT) {
+                    scan.defineType.add(type);
+                    scan.defineIndex.add(a);
+                    scan.defines.add(name);
+                } else {
+                    scan.add(a, b, type == REMOVE || type == TRANSFER ? -c : c);
+                    if (type == TRANSFER) scan.add(d, b, c);
+                }
+                return true;
+            });
+            if (scan.first == Long.MAX_VALUE) scan.first = sequenceOf(file, "ledger-", ".log");
+            return scan;
+        }
+
+        private void add(int warehouse, int product, int delta) {
+            if (size + 3 > deltas.length) deltas = Arrays.copyOf(deltas, deltas.length * 2);
+            deltas[size++] = warehouse;
+            deltas[size++] = product;
+            deltas[size++] = delta;
+        }
+    }
+
+    interface RecordVisitor {
+        /** Return false to stop scanning. */
+        boolean visit(long seq, byte type, int a, int b, int c, int d, String name);
+    }
+
+    // Visits the records of one segment in order, until the visitor stops, the
+    // segment ends, or a torn/corrupt record is found.
+    private static void scan(Path file, RecordVisitor visitor) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            while (buf.remaining() >= 4) {
+                int start = buf.position();
+                int length = buf.getInt();
+                if (length == SEGMENT_END || length == 0) return;
+                if (length < 17 || length > buf.remaining() + 4) return;
+                crc.reset();
+                ByteBuffer body = buf.slice(start + 4, length - 8);
+                crc.update(body);
+                if ((int) crc.getValue() != buf.getInt(start + length - 4)) return;
+                byte type = buf.get();
+                long recordSeq = buf.getLong();
+                boolean more;
+                if (type == WAREHOUSE || type == PRODUCT) {
+                    int index = buf.getInt();
+                    more = visitor.visit(recordSeq, type, index, -1, 0, -1, readString(buf));
+                } else {
+                    int a = buf.getInt(), b = buf.getInt(), c = buf.getInt();
+                    int d = type == TRANSFER ? buf.getInt() : -1;
+                    more = visitor.visit(recordSeq, type, a, b, c, d, null);
+                }
+                if (!more) return;
+                buf.position(start + length);
+            }
+        }
+    }
+
+    // Change a stock event makes to 'warehouse' (a = source, d = transfer target).
+    private static int delta(byte type, int a, int c, int d, int warehouse) {
+        if (warehouse < 0) return 0;
+        switch (type) {
+            case ADD:
+            case ADJUST:
+                return a == warehouse ? c : 0;
+            case REMOVE:
+                return a == warehouse ? -c : 0;
+            case TRANSFER:
+                return (a == warehouse ? -c : 0) + (d == warehouse ? c : 0);
+            default:
+                return 0;
+        }
+    }
+
+    // Segments that can hold records after 'seq': the one containing seq + 1 and every later one.
+    private static List<Path> segmentsFrom(Path dir, long seq) throws IOException {
+        List<Long> firsts = sequences(dir, "ledger-", ".log");
+        int from = 0;
+        for (int i = 0; i < firsts.size(); i++) {
+            if (firsts.get(i) <= seq + 1) from = i;
+        }
+        List<Path> files = new ArrayList<>();
+        for (int i = from; i < firsts.size(); i++) files.add(segmentPath(dir, firsts.get(i)));
+        return files;
+    }
+
+    private static List<Long> sequences(Path dir, String prefix, String suffix) throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path f : files) seqs.add(sequenceOf(f, prefix, suffix));
+        }
+        Collections.sort(seqs);
+        return seqs;
+    }
+
+    private static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static Path segmentPath(Path dir, long firstSeq) {
+        return dir.resolve("ledger-" + firstSeq + ".log");
+    }
+
+    private static Path snapshotPath(Path dir, long seq) {
+        return dir.resolve("snapshot-" + seq + ".bin");
+    }
+
+    private static void writeString(ByteBuffer buf, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buf.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void await(List<? extends Future<?>> futures) throws IOException {
+        for (Future<?> f : futures) get(f);
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Ledger replay failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during ledger replay", e);
+        }
+    }
+
+    // --- Example usage: a million requests, restart, and a point-in-time query ---
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("inventory-ledger");
+        java.util.Random random = new java.util.Random(3);
+        long midSeq = 0;
+        int midStock = 0;
+        int finalStock;
+        try (InventoryLedger ledger = open(dir, 250000)) {
+            InventoryManager manager = new InventoryManager(ledger);
+            for (int w = 0; w < 50; w++) manager.addWarehouse(new Warehouse("W" + w, ledger.getCatalog()));
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < 100000; i++) {
+                    String product = "P" + random.nextInt(1000);
+                    String warehouse = "W" + random.nextInt(50);
+                    int qty = 1 + random.nextInt(10);
+                    if (i % 3 == 0) {
+                        manager.addRequest(new InventoryRequest(RequestType.ADD, product, qty * 2, warehouse));
+                    } else if (i % 3 == 1) {
+                        manager.addRequest(new InventoryRequest(RequestType.REMOVE, product, qty, warehouse));
+                    } else {
+                        manager.addRequest(new InventoryRequest(product, qty, warehouse, "W" + random.nextInt(50)));
+                    }
+                }
+                manager.processRequests();
+                if (round == 4) {
+                    midSeq = ledger.lastSequence();
+                    midStock = manager.getWarehouse("W7").getStock("P42");
+                }
+            }
+            finalStock = manager.getWarehouse("W7").getStock("P42");
+            System.out.println("Logged " + ledger.lastSequence() + " records");
+        }
+
+        long start = System.nanoTime();
+        try (InventoryLedger ledger = open(dir, 250000)) {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            InventoryManager manager = new InventoryManager(ledger);
+            System.out.println("Recovered " + ledger.getWarehouses().size() + " warehouses in " + millis + " ms");
+            System.out.println("W7/P42 now: " + manager.getWarehouse("W7").getStock("P42") + " (expected " + finalStock + ")");
+            System.out.println("W7/P42 at seq " + midSeq + ": " + ledger.stockAt("W7", "P42", midSeq)
+                    + " (expected " + midStock + ")");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package InventoryManagement;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+class InventoryManager implements AutoCloseable {
+    private Map<String, Warehouse> warehouses = new HashMap<>();
+    private Queue<InventoryRequest> requests = new ArrayDeque<>();
+    // Bounds how many distinct keys processRequestsBatched holds in memory at once.
+    private static final int BATCH_WINDOW = 8192;
+    private final RequestCoalescer coalescer;
+    // Optional; when set, every applied change is recorded and each processing round is synced.
+    private final InventoryLedger ledger;
+    // Running totals and the low-stock index, updated by every stock change.
+    private final StockViews views;
+    // Checkout holds; the expiry ticker starts with the first reserve() and stops in close().
+    private static final long HOLD_TICK_MILLIS = 100;
+    private final StockReservations reservations = new StockReservations(HOLD_TICK_MILLIS);
+    private volatile boolean expiring;
+
+    public InventoryManager() { this(null); }
+
+    /** A manager whose warehouses are recovered from, and recorded in, the ledger. */
+    public InventoryManager(InventoryLedger ledger) {
+        this.ledger = ledger;
+        this.coalescer = new RequestCoalescer(warehouses, ledger);
+        this.views = new StockViews(ledger != null ? ledger.getCatalog() : ProductCatalog.DEFAULT);
+        if (ledger != null) {
+            for (Warehouse w : ledger.getWarehouses()) {
+                warehouses.put(w.getId(), w);
+                views.register(w);
+            }
+        }
+    }
+    
+    public void addWarehouse(Warehouse w) {
+        warehouses.put(w.getId(), w);
+        views.register(w);
+        if (ledger != null) ledger.register(w);
+    }
+    public Warehouse getWarehouse(String id) { return warehouses.get(id); }
+    public StockViews getStockViews() { return views; }
+    public StockReservations getReservations() { return reservations; }
+
+    /** Holds stock for holdMillis. Returns null if the warehouse has less than qty available. */
+    public StockReservations.Hold reserve(String warehouseId, String productId, int qty, long holdMillis) {
+        Warehouse w = warehouses.get(warehouseId);
+        if (w == null) throw new IllegalArgumentException("Unknown warehouse " + warehouseId);
+        if (!expiring) startExpiry();
+        return reservations.reserve(w, productId, qty, System.currentTimeMillis() + holdMillis);
+    }
+
+    private synchronized void startExpiry() {
+        if (expiring) return;
+        reservations.start();
+        expiring = true;
+    }
+
+    /** Stops the hold-expiry ticker. Holds still open stay reserved until released or committed. */
+    public void close() { reservations.close(); }
+
+    /**
+     * Sells held stock; recorded in the ledger, durable at its next sync. False if the hold already ended.
+     * Reserving and releasing are not recorded: the ledger counts held units as on hand, so only the
+     * sale changes it, and after a restart any hold still open is simply available again.
+     */
+    public boolean commit(StockReservations.Hold hold) {
+        if (ledger == null) return reservations.commit(hold);
+        synchronized (ledger) {   // the sale and its record are one step for the ledger's snapshots
+            if (!reservations.commit(hold)) return false;
+            ledger.adjusted(hold.getWarehouse(), hold.getProductId(), -hold.getQuantity());
+            return true;
+        }
+    }
+
+    /** Returns held stock early. False if the hold already ended. */
+    public boolean release(StockReservations.Hold hold) { return reservations.release(hold); }
+    public void addRequest(InventoryRequest req) { requests.add(req); }
+    
+    public void processRequests() {
+        while (!requests.isEmpty()) apply(requests.poll());
+        if (ledger != null) ledger.sync();
+    }
+
+    // Applies one request and logs it if it took effect. Returns the stock updates it made.
+    private int apply(InventoryRequest req) {
+        if (ledger == null) return change(req);
+        synchronized (ledger) {   // the change and its record are one step for the ledger's snapshots
+            int written = change(req);
+            if (written > 0) ledger.applied(req);
+            return written;
+        }
+    }
+
+    private int change(InventoryRequest req) {
+        int written = 1;
+        switch (req.type) {
+            case ADD:
+                warehouses.get(req.warehouseId).addStock(req.productId, req.quantity);
+                break;
+            case REMOVE:
+                if (!warehouses.get(req.warehouseId).removeStock(req.productId, req.quantity)) written = 0;
+                break;
+            case TRANSFER:
+                Warehouse from = warehouses.get(req.warehouseId);
+                Warehouse to = warehouses.get(req.targetWarehouseId);
+                if (from.removeStock(req.productId, req.quantity)) {
+                    to.addStock(req.productId, req.quantity);
+                    written = 2;
+                } else {
+                    written = 0;
+                }
+                break;
+        }
+        return written;
+    }
+
+    /**
+     * Same result as processRequests, but coalesced: requests are taken in
+     * windows, each (warehouse, product) key's stock is read once per window,
+     * every request in the window is applied to an in-memory running level, and
+     * one net update per key is written (and logged) at the end. REMOVEs and
+     * TRANSFERs are still rejected exactly when processRequests would reject them.
+     *
+     * A window in which most requests hit a new key is followed by one window
+     * applied request by request, as processRequests does, before coalescing
+     * resumes. With a ledger, each net update is one record and the round ends
+     * with a sync.
+     *
+     * Assumes nothing else writes to these warehouses while it runs.
+     * Returns the number of stock updates actually written.
+     */
+    public int processRequestsBatched() {
+        int written = 0;
+        boolean coalesce = true;
+        while (!requests.isEmpty()) {
+            int n = 0;
+            if (!coalesce) {
+                for (; n < BATCH_WINDOW && !requests.isEmpty(); n++) written += apply(requests.poll());
+                coalesce = true;
+                continue;
+            }
+            try {
+                for (; n < BATCH_WINDOW && !requests.isEmpty(); n++) {
+                    InventoryRequest req = requests.poll();
+                    switch (req.type) {
+                        case ADD:
+                            coalescer.add(req.warehouseId, req.productId, req.quantity);
+                            break;
+                        case REMOVE:
+                            coalescer.tryRemove(req.warehouseId, req.productId, req.quantity);
+                            break;
+                        case TRANSFER:
+                            // Check the target first so a failed transfer never removes stock.
+                            if (!warehouses.containsKey(req.targetWarehouseId))
+                                throw new IllegalArgumentException("Unknown warehouse " + req.targetWarehouseId);
+                            if (coalescer.tryRemove(req.warehouseId, req.productId, req.quantity))
+                                coalescer.add(req.targetWarehouseId, req.productId, req.quantity);
+                            break;
+                    }
+                }
+            } finally {
+                // Requests before a failing one still take effect, as in processRequests.
+                coalesce = coalescer.size() * 2 <= n;
+                written += coalescer.flush();
+            }
+        }
+        if (ledger != null) ledger.sync();
+        return written;
+    }
+    
+    // Inner class representing a single inventory request.
+    public static class InventoryRequest {
+        RequestType type;
+        String productId;
+        int quantity;
+        String warehouseId;       // For ADD, REMOVE, or source for TRANSFER.
+        String targetWarehouseId; // For TRANSFER only.
+        
+        public InventoryRequest(RequestType type, String productId, int qty, String warehouseId) {
+            this.type = type; this.productId = productId; this.quantity = qty; this.warehouseId = warehouseId;
+        }
+        public InventoryRequest(String productId, int qty, String fromWarehouseId, String toWarehouseId) {
+            this.type = RequestType.TRANSFER; this.productId = productId; this.quantity = qty;
+            this.warehouseId = fromWarehouseId; this.targetWarehouseId = toWarehouseId;
+        }
+    }
+}
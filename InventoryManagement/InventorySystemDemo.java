@@ -1,76 +1,11 @@
 package InventoryManagement;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Queue;
-
-enum RequestType { ADD, REMOVE, TRANSFER; }
-
-class Warehouse {
-    private String id;
-    private Map<String, Integer> inventory = new HashMap<>();
-    public Warehouse(String id) { this.id = id; }
-    public String getId() { return id; }
-    public void addStock(String productId, int qty) {
-        inventory.put(productId, inventory.getOrDefault(productId, 0) + qty);
-    }
-    public boolean removeStock(String productId, int qty) {
-        int cur = inventory.getOrDefault(productId, 0);
-        if (cur < qty) return false;
-        inventory.put(productId, cur - qty);
-        return true;
-    }
-    public int getStock(String productId) { return inventory.getOrDefault(productId, 0); }
-}
-
-class InventoryManager {
-    private Map<String, Warehouse> warehouses = new HashMap<>();
-    private Queue<InventoryRequest> requests = new LinkedList<>();
-    
-    public void addWarehouse(Warehouse w) { warehouses.put(w.getId(), w); }
-    public void addRequest(InventoryRequest req) { requests.add(req); }
-    
-    public void processRequests() {
-        while (!requests.isEmpty()) {
-            InventoryRequest req = requests.poll();
-            switch (req.type) {
-                case ADD:
-                    warehouses.get(req.warehouseId).addStock(req.productId, req.quantity);
-                    break;
-                case REMOVE:
-                    warehouses.get(req.warehouseId).removeStock(req.productId, req.quantity);
-                    break;
-                case TRANSFER:
-                    Warehouse from = warehouses.get(req.warehouseId);
-                    Warehouse to = warehouses.get(req.targetWarehouseId);
-                    if (from.removeStock(req.productId, req.quantity))
-                        to.addStock(req.productId, req.quantity);
-                    break;
-            }
-        }
-    }
-    
-    // Inner class representing a single inventory request.
-    public static class InventoryRequest {
-        RequestType type;
-        String productId;
-        int quantity;
-        String warehouseId;       // For ADD, REMOVE, or source for TRANSFER.
-        String targetWarehouseId; // For TRANSFER only.
-        
-        public InventoryRequest(RequestType type, String productId, int qty, String warehouseId) {
-            this.type = type; this.productId = productId; this.quantity = qty; this.warehouseId = warehouseId;
-        }
-        public InventoryRequest(String productId, int qty, String fromWarehouseId, String toWarehouseId) {
-            this.type = RequestType.TRANSFER; this.productId = productId; this.quantity = qty;
-            this.warehouseId = fromWarehouseId; this.targetWarehouseId = toWarehouseId;
-        }
-    }
-}
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class InventorySystemDemo {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         InventoryManager manager = new InventoryManager();
         Warehouse w1 = new Warehouse("W1"), w2 = new Warehouse("W2");
         manager.addWarehouse(w1); manager.addWarehouse(w2);
@@ -85,5 +20,37 @@ public class InventorySystemDemo {
         
         System.out.println("W1 stock for P1: " + w1.getStock("P1"));
         System.out.println("W2 stock for P1: " + w2.getStock("P1"));
+
+        // Batch mode: with a ledger, a burst of receiving and picking on one key nets to a single record.
+        Path dir = Files.createTempDirectory("inventory-demo");
+        try (InventoryLedger ledger = InventoryLedger.open(dir, 1000)) {
+            InventoryManager journaled = new InventoryManager(ledger);
+            Warehouse w3 = new Warehouse("W3", ledger.getCatalog());
+            journaled.addWarehouse(w3);
+            for (int i = 0; i < 500; i++) {
+                journaled.addRequest(new InventoryManager.InventoryRequest(RequestType.ADD, "P2", 3, "W3"));
+                journaled.addRequest(new InventoryManager.InventoryRequest(RequestType.REMOVE, "P2", 2, "W3"));
+            }
+            int written = journaled.processRequestsBatched();
+            System.out.println("W3 stock for P2: " + w3.getStock("P2") + " (1000 requests, " + written + " stock update)");
+        }
+
+        // Views: totals across warehouses, and an alert the moment a pick crosses the reorder point.
+        StockViews views = manager.getStockViews();
+        views.onLowStock((w, product, level, threshold) ->
+                System.out.println("Low stock: " + product + " at " + w.getId() + " is " + level + " (reorder below " + threshold + ")"));
+        views.setReorderThreshold("P1", 25);
+        manager.addRequest(new InventoryManager.InventoryRequest(RequestType.REMOVE, "P1", 10, "W1"));
+        manager.processRequests();
+        System.out.println("Total P1: " + views.totalStock("P1") + ", low: " + views.lowStock());
+
+        // Checkout: hold stock while payment is pending; unpaid holds expire back to available.
+        StockReservations.Hold paid = manager.reserve("W2", "P1", 5, 60000);
+        StockReservations.Hold abandoned = manager.reserve("W2", "P1", 10, 60000);
+        System.out.println("W2 P1 available " + w2.getStock("P1") + ", reserved " + w2.getReserved(w2.getCatalog().find("P1")));
+        manager.commit(paid);
+        manager.getReservations().expire(System.currentTimeMillis() + 61000);
+        System.out.println("After payment and expiry: W2 P1 available " + w2.getStock("P1")
+                + ", hold expired " + !abandoned.isActive() + ", late commit accepted " + manager.commit(abandoned));
     }
 }
@@ -0,0 +1,51 @@
+package InventoryManagement;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns product IDs to dense int handles (0, 1, 2, ...).
+ *
+ * Warehouses sharing a catalog index their stock arrays by the same handle,
+ * so a product is hashed once per request and every stock update after that
+ * is a plain array access. Thread-safe; a product keeps its handle forever.
+ */
+class ProductCatalog {
+
+    /** Catalog used by warehouses that are not given one explicitly. */
+    static final ProductCatalog DEFAULT = new ProductCatalog();
+
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    private String[] names = new String[1024];   // guarded by 'this'
+    private int size;                            // guarded by 'this'
+
+    /** Returns the product's handle, assigning the next free one on first sight. */
+    public int intern(String productId) {
+        Integer handle = handles.get(productId);
+        if (handle != null) return handle;
+        synchronized (this) {
+            handle = handles.get(productId);
+            if (handle != null) return handle;
+            if (size == names.length) names = Arrays.copyOf(names, size * 2);
+            names[size] = productId;
+            handles.put(productId, size);
+            return size++;
+        }
+    }
+
+    /** Returns the product's handle, or -1 if it has never been interned. */
+    public int find(String productId) {
+        Integer handle = handles.get(productId);
+        return handle == null ? -1 : handle;
+    }
+
+    public synchronized String name(int handle) {
+        if (handle < 0 || handle >= size) throw new IllegalArgumentException("Unknown product handle " + handle);
+        return names[handle];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
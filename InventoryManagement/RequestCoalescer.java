@@ -0,0 +1,141 @@
+package InventoryManagement;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Per-window scratch state for InventoryManager.processRequestsBatched.
+ *
+ * Each (warehouse id, product id) key touched in the window gets one entry
+ * holding the stock read on first touch and a running level. The warehouse and
+ * product handle are resolved once per entry, so a repeated key costs a single
+ * probe here instead of a warehouse lookup, a catalog lookup and an atomic
+ * update. Requests update the running level in queue order, so a REMOVE is
+ * accepted or rejected exactly as it would be one at a time; flush() then
+ * writes one net update per key. Entries live in parallel arrays behind an
+ * open-addressing index and are reused across windows.
+ */
+final class RequestCoalescer {
+
+    private final Map<String, Warehouse> warehouseById;
+    private final InventoryLedger ledger;   // may be null
+    private String[] warehouseIds = new String[256];
+    private String[] productIds = new String[256];
+    private Warehouse[] warehouses = new Warehouse[256];
+    private int[] products = new int[256];   // catalog handle, or -1 if not interned yet
+    private int[] base = new int[256];
+    private int[] level = new int[256];
+    private int[] slots = new int[256];      // index position of each entry, for cheap reset
+    private int[] hashes = new int[256];     // checked before the string compares
+    private int[] index = new int[512];      // entry + 1, 0 = empty
+    private int size;
+
+    RequestCoalescer(Map<String, Warehouse> warehouseById, InventoryLedger ledger) {
+        this.warehouseById = warehouseById;
+        this.ledger = ledger;
+    }
+
+    void add(String warehouseId, String productId, int qty) {
+        int e = entry(warehouseId, productId);
+        if (products[e] < 0) products[e] = warehouses[e].getCatalog().intern(productId);
+        level[e] += qty;
+    }
+
+    boolean tryRemove(String warehouseId, String productId, int qty) {
+        int e = entry(warehouseId, productId);
+        if (level[e] < qty) return false;
+        level[e] -= qty;
+        return true;
+    }
+
+    /** Keys touched in the current window. */
+    int size() {
+        return size;
+    }
+
+    /** Writes one net update per touched key and resets for the next window. Returns the keys written. */
+    int flush() {
+        int written = 0;
+        for (int e = 0; e < size; e++) {
+            int delta = level[e] - base[e];
+            if (delta != 0) {
+                if (ledger == null) {
+                    warehouses[e].addStock(products[e], delta);
+                } else {
+                    synchronized (ledger) {   // one step for the ledger's snapshots
+                        warehouses[e].addStock(products[e], delta);
+                        ledger.adjusted(warehouses[e], productIds[e], delta);
+                    }
+                }
+                written++;
+            }
+            warehouseIds[e] = null;
+            productIds[e] = null;
+            warehouses[e] = null;
+            index[slots[e]] = 0;
+        }
+        size = 0;
+        return written;
+    }
+
+    private int entry(String warehouseId, String productId) {
+        int h = hash(warehouseId, productId);
+        int mask = index.length - 1;
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            int e = index[i] - 1;
+            if (e < 0) {
+                if ((size + 1) * 2 > index.length) {
+                    grow();
+                    return entry(warehouseId, productId);
+                }
+                return newEntry(i, h, warehouseId, productId);
+            }
+            if (hashes[e] == h && productIds[e].equals(productId) && warehouseIds[e].equals(warehouseId)) return e;
+        }
+    }
+
+    private int newEntry(int i, int h, String warehouseId, String productId) {
+        Warehouse w = warehouseById.get(warehouseId);
+        if (w == null) throw new IllegalArgumentException("Unknown warehouse " + warehouseId);
+        int e = size++;
+        warehouseIds[e] = warehouseId;
+        productIds[e] = productId;
+        warehouses[e] = w;
+        // Not interned means never stocked; a REMOVE alone must not grow the catalog.
+        products[e] = w.getCatalog().find(productId);
+        base[e] = products[e] < 0 ? 0 : w.getStock(products[e]);
+        level[e] = base[e];
+        slots[e] = i;
+        hashes[e] = h;
+        index[i] = e + 1;
+        return e;
+    }
+
+    private void grow() {
+        int capacity = warehouses.length * 2;
+        warehouseIds = Arrays.copyOf(warehouseIds, capacity);
+        productIds = Arrays.copyOf(productIds, capacity);
+        warehouses = Arrays.copyOf(warehouses, capacity);
+        products = Arrays.copyOf(products, capacity);
+        base = Arrays.copyOf(base, capacity);
+        level = Arrays.copyOf(level, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        index = new int[capacity * 2];
+        int mask = index.length - 1;
+        for (int e = 0; e < size; e++) {
+            int i = hashes[e] & mask;
+            while (index[i] != 0) i = (i + 1) & mask;
+            slots[e] = i;
+            index[i] = e + 1;
+        }
+    }
+
+    private static int hash(String warehouseId, String productId) {
+        // Ids like "W1", "W2" hash to neighbouring values, so mix both parts fully.
+        int h = warehouseId.hashCode() * 0x9E3779B9 + productId.hashCode() * 0x85EBCA6B;
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,3 @@
+package InventoryManagement;
+
+enum RequestType { ADD, REMOVE, TRANSFER; }
@@ -0,0 +1,212 @@
+package InventoryManagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import InventoryManagement.InventoryManager.InventoryRequest;
+
+/**
+ * Multi-threaded InventoryManager.
+ *
+ * Requests are sharded by (warehouse, product) across worker threads, so all
+ * requests for one key run on one thread, in the order they were queued, and
+ * different keys run in parallel without locking each other.
+ *
+ * A TRANSFER whose two keys live on different shards is queued on both, at
+ * its place in each shard's order. The source shard removes the stock and
+ * reports whether that succeeded; the destination shard, on reaching the
+ * transfer, waits for that report and then adds the stock (or not). So every
+ * key still sees its requests in queue order, and stock is never over-drawn
+ * or created, with no global lock. A shard only ever waits for a transfer
+ * queued before everything it has yet to run, and the source shard reaches
+ * that transfer without waiting on anything later, so the waits cannot form
+ * a cycle.
+ */
+class ShardedInventoryManager implements AutoCloseable {
+
+    private final Map<String, Warehouse> warehouses = new ConcurrentHashMap<>();
+    private final Queue<InventoryRequest> requests = new ConcurrentLinkedQueue<>();
+    private final Shard[] shards;
+    // Steps dispatched to shards but not yet applied; a cross-shard transfer counts twice.
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private final Object idle = new Object();
+
+    public ShardedInventoryManager(int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("workers must be positive");
+        shards = new Shard[workers];
+        for (int i = 0; i < workers; i++) {
+            shards[i] = new Shard(i);
+            shards[i].start();
+        }
+    }
+
+    public ShardedInventoryManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public void addWarehouse(Warehouse w) { warehouses.put(w.getId(), w); }
+    public void addRequest(InventoryRequest req) { requests.add(req); }
+
+    /**
+     * Applies every queued request and waits for all of them, including the
+     * destination side of transfers. Rethrows the first failure, if any.
+     */
+    public void processRequests() throws InterruptedException {
+        List<List<Step>> batches = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) batches.add(new ArrayList<>());
+        int n = 0;
+        InventoryRequest req;
+        while ((req = requests.poll()) != null) {
+            int source = shardOf(req.warehouseId, req.productId);
+            CompletableFuture<Boolean> removed = null;
+            if (req.type == RequestType.TRANSFER) {
+                int target = shardOf(req.targetWarehouseId, req.productId);
+                if (target != source) {
+                    removed = new CompletableFuture<>();
+                    batches.get(target).add(new Step(req, removed, true));
+                    n++;
+                }
+            }
+            batches.get(source).add(new Step(req, removed, false));
+            n++;
+        }
+        outstanding.addAndGet(n);
+        for (int i = 0; i < shards.length; i++) {
+            if (!batches.get(i).isEmpty()) shards[i].inbox.add(batches.get(i));
+        }
+        synchronized (idle) {
+            while (outstanding.get() != 0) idle.wait();
+        }
+        RuntimeException e = failure.getAndSet(null);
+        if (e != null) throw e;
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) shard.interrupt();
+    }
+
+    private int shardOf(String warehouseId, String productId) {
+        int h = warehouseId.hashCode() * 31 + productId.hashCode();
+        h ^= h >>> 16;
+        return Math.floorMod(h, shards.length);
+    }
+
+    private void done(int count) {
+        if (outstanding.addAndGet(-count) == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    // One shard's part of a request. A cross-shard transfer becomes two steps sharing 'removed'.
+    private static final class Step {
+        final InventoryRequest req;
+        final CompletableFuture<Boolean> removed;   // null unless the transfer spans two shards
+        final boolean destination;                  // the ADD half of a split transfer
+
+        Step(InventoryRequest req, CompletableFuture<Boolean> removed, boolean destination) {
+            this.req = req;
+            this.removed = removed;
+            this.destination = destination;
+        }
+    }
+
+    private final class Shard extends Thread {
+        final BlockingQueue<List<Step>> inbox = new LinkedBlockingQueue<>();
+
+        Shard(int index) {
+            super("inventory-shard-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    List<Step> batch = inbox.take();
+                    for (Step step : batch) {
+                        try {
+                            apply(step);
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                    done(batch.size());
+                }
+            } catch (InterruptedException e) {
+                // close()
+            }
+        }
+
+        private void apply(Step step) throws InterruptedException {
+            InventoryRequest req = step.req;
+            switch (req.type) {
+                case ADD:
+                    warehouses.get(req.warehouseId).addStock(req.productId, req.quantity);
+                    break;
+                case REMOVE:
+                    warehouses.get(req.warehouseId).removeStock(req.productId, req.quantity);
+                    break;
+                case TRANSFER:
+                    if (step.destination) {
+                        // Later requests on this key stay queued behind us until the source side reports.
+                        if (awaitRemoved(step.removed)) {
+                            warehouses.get(req.targetWarehouseId).addStock(req.productId, req.quantity);
+                        }
+                        break;
+                    }
+                    boolean removed = false;
+                    try {
+                        Warehouse to = warehouses.get(req.targetWarehouseId);
+                        if (to == null) throw new IllegalArgumentException("Unknown warehouse " + req.targetWarehouseId);
+                        removed = warehouses.get(req.warehouseId).removeStock(req.productId, req.quantity);
+                        if (removed && step.removed == null) to.addStock(req.productId, req.quantity);
+                    } finally {
+                        if (step.removed != null) step.removed.complete(removed);
+                    }
+                    break;
+            }
+        }
+
+        private boolean awaitRemoved(CompletableFuture<Boolean> removed) throws InterruptedException {
+            try {
+                return removed.get();
+            } catch (ExecutionException e) {
+                return false;   // never completed exceptionally
+            }
+        }
+    }
+
+    // --- Example usage ---
+    public static void main(String[] args) throws InterruptedException {
+        try (ShardedInventoryManager manager = new ShardedInventoryManager(4)) {
+            Warehouse w1 = new Warehouse("W1"), w2 = new Warehouse("W2");
+            manager.addWarehouse(w1);
+            manager.addWarehouse(w2);
+            for (int i = 0; i < 1000; i++) {
+                manager.addRequest(new InventoryRequest(RequestType.ADD, "P" + (i % 10), 10, "W1"));
+                manager.addRequest(new InventoryRequest("P" + (i % 10), 7, "W1", "W2"));
+                manager.addRequest(new InventoryRequest(RequestType.REMOVE, "P" + (i % 10), 5, "W2"));
+            }
+            manager.processRequests();
+            int total = 0;
+            for (int p = 0; p < 10; p++) total += w1.getStock("P" + p) + w2.getStock("P" + p);
+            System.out.println("W1 stock for P0: " + w1.getStock("P0"));
+            System.out.println("W2 stock for P0: " + w2.getStock("P0"));
+            System.out.println("Total units: " + total);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package InventoryManagement;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Stock levels indexed by product handle, as primitive ints.
+ *
+ * Storage is a directory of 4096-slot int[] chunks allocated on first write,
+ * so a warehouse that stocks a few SKUs out of a large catalog only pays for
+ * the chunks it touches. Every update is one atomic read-modify-write on one
+ * array slot: no boxing, no entry objects, no second lookup.
+ */
+final class StockArray {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle INT = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle CHUNK = MethodHandles.arrayElementVarHandle(int[][].class);
+
+    private volatile int[][] chunks = new int[16][];
+
+    int get(int handle) {
+        int[] chunk = chunkOrNull(handle);
+        return chunk == null ? 0 : (int) INT.getVolatile(chunk, handle & CHUNK_MASK);
+    }
+
+    /** Adds delta and returns the new level. */
+    int add(int handle, int delta) {
+        return (int) INT.getAndAdd(chunk(handle), handle & CHUNK_MASK, delta) + delta;
+    }
+
+    /** Subtracts qty unless that would go negative; returns the new level, or -1 if it did not. */
+    int tryRemove(int handle, int qty) {
+        int[] chunk = chunkOrNull(handle);
+        if (chunk == null) return qty <= 0 ? 0 : -1;
+        int slot = handle & CHUNK_MASK;
+        while (true) {
+            int cur = (int) INT.getVolatile(chunk, slot);
+            if (cur < qty) return -1;
+            if (INT.compareAndSet(chunk, slot, cur, cur - qty)) return cur - qty;
+        }
+    }
+
+    private int[] chunkOrNull(int handle) {
+        int[][] dir = chunks;
+        int c = handle >>> CHUNK_BITS;
+        return c < dir.length ? (int[]) CHUNK.getAcquire(dir, c) : null;
+    }
+
+    private int[] chunk(int handle) {
+        int[] chunk = chunkOrNull(handle);
+        return chunk != null ? chunk : allocate(handle >>> CHUNK_BITS);
+    }
+
+    private synchronized int[] allocate(int c) {
+        int[][] dir = chunks;
+        if (c >= dir.length) {
+            int[][] grown = new int[Math.max(dir.length * 2, c + 1)][];
+            for (int i = 0; i < dir.length; i++) grown[i] = (int[]) CHUNK.getAcquire(dir, i);
+            dir = grown;
+            chunks = grown;
+        }
+        int[] chunk = (int[]) CHUNK.getAcquire(dir, c);
+        if (chunk == null) {
+            chunk = new int[CHUNK_SIZE];
+            CHUNK.setRelease(dir, c, chunk);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,6 @@
+package InventoryManagement;
+
+// Told about every stock change, with the levels right before and after it.
+interface StockListener {
+    void stockChanged(Warehouse w, int product, int before, int after);
+}
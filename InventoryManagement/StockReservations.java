@@ -0,0 +1,163 @@
+package InventoryManagement;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock holds with a time limit, for checkouts that claim stock before payment.
+ *
+ * reserve moves units from a warehouse's available stock to its reserved
+ * count and returns a Hold. The hold ends exactly once: commit drops the
+ * units, release (or the deadline passing) puts them back. Which of those
+ * wins is decided by one CAS on the hold's state, so a payment confirmation
+ * racing the expiry cannot both sell and restock the same units.
+ *
+ * Nothing on the reserve/commit/release path takes a lock. New holds are
+ * queued on a lock-free queue and only the expiring thread moves them into
+ * the TimingWheel; a hold that is committed or released early is left in the
+ * wheel and skipped when its deadline comes, instead of being unlinked.
+ *
+ * Time is driven by expire(nowMillis), from the caller's clock or from the
+ * ticker started with start(). Holds never expire early; they expire at most
+ * one tick late.
+ */
+class StockReservations implements AutoCloseable {
+
+    private static final int HELD = 0, COMMITTED = 1, RELEASED = 2, EXPIRED = 3;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final Queue<Hold> scheduled = new ConcurrentLinkedQueue<>();
+    private final TimingWheel<Hold> wheel = new TimingWheel<>(0);   // guarded by 'this'
+    private final LongAdder active = new LongAdder();
+    private ScheduledExecutorService ticker;
+
+    /** @param tickMillis resolution of hold deadlines */
+    public StockReservations(long tickMillis) {
+        this(tickMillis, System.currentTimeMillis());
+    }
+
+    StockReservations(long tickMillis, long originMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+    }
+
+    /** Holds qty units until deadlineMillis (epoch millis). Returns null if not enough is available. */
+    public Hold reserve(Warehouse w, String productId, int qty, long deadlineMillis) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        int product = w.getCatalog().find(productId);
+        if (product < 0 || !w.reserve(product, qty)) return null;
+        // Round up so a hold never expires early.
+        long tick = Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis);
+        Hold hold = new Hold(w, product, productId, qty, tick);
+        active.increment();
+        scheduled.add(hold);
+        return hold;
+    }
+
+    /** Makes the hold's units sold. Returns false if the hold had already ended. */
+    public boolean commit(Hold hold) {
+        if (!hold.end(COMMITTED)) return false;
+        hold.warehouse.commitReserved(hold.product, hold.quantity);
+        return true;
+    }
+
+    /** Gives the hold's units back. Returns false if the hold had already ended. */
+    public boolean release(Hold hold) {
+        if (!hold.end(RELEASED)) return false;
+        hold.warehouse.releaseReserved(hold.product, hold.quantity);
+        return true;
+    }
+
+    /** Releases every hold whose deadline is at or before nowMillis. Returns how many were released. */
+    public int expire(long nowMillis) {
+        List<Hold> due = new ArrayList<>();
+        synchronized (this) {
+            for (Hold h; (h = scheduled.poll()) != null; ) {
+                if (h.isActive()) wheel.schedule(h, h.deadlineTick);
+            }
+            wheel.advanceTo(Math.floorDiv(nowMillis - originMillis, tickMillis), due::add);
+        }
+        int expired = 0;
+        for (Hold h : due) {
+            // Loses cleanly to a commit or release at the same moment.
+            if (!h.end(EXPIRED)) continue;
+            h.warehouse.releaseReserved(h.product, h.quantity);
+            expired++;
+        }
+        return expired;
+    }
+
+    /** Starts a daemon thread that calls expire() once per tick using the system clock. */
+    public synchronized void start() {
+        if (ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hold-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> expire(System.currentTimeMillis()), tickMillis, tickMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /** Holds that have not been committed, released or expired yet. */
+    public long activeHolds() {
+        return active.sum();
+    }
+
+    /** Units of one product held in one warehouse, ended exactly once. */
+    public final class Hold {
+        private static final VarHandle STATE;
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Hold.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Warehouse warehouse;
+        private final int product;
+        private final String productId;
+        private final int quantity;
+        private final long deadlineTick;
+        private volatile int state = HELD;
+
+        private Hold(Warehouse warehouse, int product, String productId, int quantity, long deadlineTick) {
+            this.warehouse = warehouse;
+            this.product = product;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private boolean end(int outcome) {
+            if (!STATE.compareAndSet(this, HELD, outcome)) return false;
+            active.decrement();
+            return true;
+        }
+
+        public boolean isActive() { return state == HELD; }
+        public boolean isCommitted() { return state == COMMITTED; }
+        public Warehouse getWarehouse() { return warehouse; }
+        public String getProductId() { return productId; }
+        public int getQuantity() { return quantity; }
+    }
+}
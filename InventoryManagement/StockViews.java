@@ -0,0 +1,161 @@
+package InventoryManagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Aggregate views over a set of warehouses, kept current as stock changes.
+ *
+ * Each registered warehouse reports every change through its StockListener,
+ * so the views are updated in O(1) per change instead of being recomputed by
+ * scanning warehouses:
+ *  - totalStock: the product's stock summed over all registered warehouses,
+ *    one primitive slot per product handle.
+ *  - lowStock: every (warehouse, product) whose level is below the product's
+ *    reorder threshold, in a skip list ordered by product then warehouse, so
+ *    the low-stock warehouses of one product are a single range.
+ * A change that takes a level below the threshold adds its key and notifies
+ * the low-stock listeners once; a later restock removes it again.
+ *
+ * Thread-safe. Under concurrent updates each view converges to the live
+ * levels: membership is decided from the warehouse's current stock, not from
+ * the change that triggered the check, and re-checked after every insert.
+ */
+class StockViews {
+
+    /** Told when a warehouse's stock of a product drops below its reorder threshold. */
+    interface LowStockListener {
+        void lowStock(Warehouse w, String productId, int level, int threshold);
+    }
+
+    private final ProductCatalog catalog;
+    private final StockArray totals = new StockArray();
+    private final StockArray thresholds = new StockArray();   // 0 = no threshold
+    private final List<Warehouse> registered = new CopyOnWriteArrayList<>();
+    // Key: product handle in the high half, registration slot in the low half.
+    private final ConcurrentSkipListMap<Long, Warehouse> lowStock = new ConcurrentSkipListMap<>();
+    private final List<LowStockListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Views keyed by this catalog's handles; warehouses using another catalog are translated by name. */
+    StockViews(ProductCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /** Starts tracking w, counting the stock it already holds. Call before w takes concurrent traffic. */
+    synchronized void register(Warehouse w) {
+        int slot = registered.size();
+        registered.add(w);
+        ProductCatalog own = w.getCatalog();
+        Tracker tracker = new Tracker(slot, own == catalog ? null : own);
+        w.setStockListener(tracker);
+        // Products interned after this read start at zero, so every later change arrives as an event.
+        for (int p = 0, n = own.size(); p < n; p++) {
+            int level = w.getStock(p);
+            if (level == 0) continue;
+            int product = tracker.translate(p);
+            totals.add(product, level);
+            recheck(w, slot, p, product);
+        }
+    }
+
+    public int totalStock(String productId) {
+        int product = catalog.find(productId);
+        return product < 0 ? 0 : totals.get(product);
+    }
+
+    /** Sets the level below which a product counts as low stock; 0 clears it. */
+    public synchronized void setReorderThreshold(String productId, int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Negative threshold " + threshold);
+        int product = catalog.intern(productId);
+        int old = thresholds.get(product);
+        thresholds.add(product, threshold - old);
+        // Only this product's memberships can change; O(warehouses).
+        for (int slot = 0; slot < registered.size(); slot++) {
+            Warehouse w = registered.get(slot);
+            int own = w.getCatalog() == catalog ? product : w.getCatalog().find(productId);
+            if (own >= 0) recheck(w, slot, own, product);
+        }
+    }
+
+    public int getReorderThreshold(String productId) {
+        int product = catalog.find(productId);
+        return product < 0 ? 0 : thresholds.get(product);
+    }
+
+    public void onLowStock(LowStockListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Warehouses currently below the product's reorder threshold. O(log n + results). */
+    public List<Warehouse> lowStock(String productId) {
+        int product = catalog.find(productId);
+        if (product < 0) return List.of();
+        return new ArrayList<>(lowStock.subMap(key(product, 0), key(product + 1, 0)).values());
+    }
+
+    /** Every low-stock (warehouse id, product id) pair, grouped by product. */
+    public List<Map.Entry<String, String>> lowStock() {
+        List<Map.Entry<String, String>> result = new ArrayList<>();
+        for (Map.Entry<Long, Warehouse> e : lowStock.entrySet()) {
+            result.add(Map.entry(e.getValue().getId(), catalog.name((int) (e.getKey() >>> 32))));
+        }
+        return result;
+    }
+
+    /**
+     * Brings one key's membership in line with the warehouse's live level.
+     * own is the product's handle in w's catalog.
+     */
+    private void recheck(Warehouse w, int slot, int own, int product) {
+        Long key = key(product, slot);
+        while (true) {
+            int threshold = thresholds.get(product);
+            int level = w.getStock(own);
+            if (level >= threshold) {
+                lowStock.remove(key);
+                // A concurrent change may have dropped it again after our read; that change rechecks itself.
+                return;
+            }
+            if (lowStock.putIfAbsent(key, w) == null) {
+                int now = w.getStock(own);
+                if (now >= thresholds.get(product)) {
+                    // Restocked between the read and the insert: undo, and look again.
+                    lowStock.remove(key);
+                    continue;
+                }
+                String productId = catalog.name(product);
+                for (LowStockListener l : listeners) l.lowStock(w, productId, now, threshold);
+            }
+            return;
+        }
+    }
+
+    private static long key(int product, int slot) {
+        return ((long) product << 32) | slot;
+    }
+
+    /** Listener installed on one registered warehouse. */
+    private final class Tracker implements StockListener {
+        private final int slot;
+        private final ProductCatalog foreign;   // w's catalog when it differs from ours, else null
+
+        Tracker(int slot, ProductCatalog foreign) {
+            this.slot = slot;
+            this.foreign = foreign;
+        }
+
+        int translate(int own) {
+            return foreign == null ? own : catalog.intern(foreign.name(own));
+        }
+
+        @Override
+        public void stockChanged(Warehouse w, int own, int before, int after) {
+            int product = translate(own);
+            totals.add(product, after - before);
+            if (thresholds.get(product) > 0) recheck(w, slot, own, product);
+        }
+    }
+}
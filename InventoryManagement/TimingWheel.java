@@ -0,0 +1,173 @@
+package InventoryManagement;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (the Linux/Varghese-Lauck scheme).
+ *
+ * Time is counted in ticks. Level 0 has one slot per tick for the next 64
+ * ticks; each higher level has 64 slots that each cover 64x the span of the
+ * level below. A timeout is linked into the slot for its deadline at the
+ * lowest level that reaches it, and is moved down ("cascaded") when the wheel
+ * gets close enough. Insert and cancel are O(1) list operations. Each level
+ * keeps a 64-bit occupancy mask, so advancing jumps straight to the next slot
+ * that fires or cascades instead of walking empty ticks; cost depends on the
+ * timeouts that fire, not on how many are pending or how far time moved.
+ *
+ * The same wheel as AmazonLocker's, kept here so this package stays
+ * self-contained like every other demo.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    // Furthest a timeout can be placed ahead; later deadlines are parked at the top level.
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    private final Timeout<T>[][] slots;
+    private final long[] occupied = new long[LEVELS];   // bit s set = slots[level][s] is non-empty
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        slots = (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int s = 0; s < SLOTS; s++) {
+                // Sentinel heads let cancel unlink without finding the list first.
+                Timeout<T> head = new Timeout<>(null, 0);
+                head.slot = level * SLOTS + s;
+                head.prev = head;
+                head.next = head;
+                slots[level][s] = head;
+            }
+        }
+    }
+
+    /** Schedules item to fire once the wheel passes deadlineTick (past deadlines fire on the next tick). */
+    Timeout<T> schedule(T item, long deadlineTick) {
+        Timeout<T> t = new Timeout<>(item, Math.max(deadlineTick, currentTick + 1));
+        place(t);
+        size++;
+        return t;
+    }
+
+    /** Returns false if the timeout already fired or was cancelled. */
+    boolean cancel(Timeout<T> t) {
+        if (t.next == null) return false;
+        unlink(t);
+        size--;
+        return true;
+    }
+
+    /** Moves the wheel forward to tick, handing every timeout that is now due to onExpired. */
+    void advanceTo(long tick, Consumer<T> onExpired) {
+        while (currentTick < tick) {
+            long next = nextEventTick();
+            if (next > tick) {
+                // Nothing fires or cascades before tick.
+                currentTick = tick;
+                return;
+            }
+            currentTick = next;
+            cascade();
+            Timeout<T> head = slots[0][(int) (currentTick & MASK)];
+            while (head.next != head) {
+                Timeout<T> t = head.next;
+                unlink(t);
+                size--;
+                onExpired.accept(t.item);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    // Earliest tick after currentTick at which a non-empty slot fires (level 0) or cascades.
+    private long nextEventTick() {
+        long next = Long.MAX_VALUE;
+        long first = Long.rotateRight(occupied[0], (int) ((currentTick + 1) & MASK));
+        if (first != 0) next = currentTick + 1 + Long.numberOfTrailingZeros(first);
+        for (int level = 1; level < LEVELS; level++) {
+            if (occupied[level] == 0) continue;
+            int shift = BITS * level;
+            long block = (currentTick >>> shift) + 1;
+            long rotated = Long.rotateRight(occupied[level], (int) (block & MASK));
+            long boundary = (block + Long.numberOfTrailingZeros(rotated)) << shift;
+            next = Math.min(next, boundary);
+        }
+        return next;
+    }
+
+    // At each 64^level boundary, re-place the level's current slot one level (or more) down.
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) return;
+            int s = (int) ((currentTick >>> (BITS * level)) & MASK);
+            Timeout<T> head = slots[level][s];
+            Timeout<T> t = head.next;
+            head.next = head;
+            head.prev = head;
+            occupied[level] &= ~(1L << s);
+            while (t != head) {
+                Timeout<T> next = t.next;
+                place(t);
+                t = next;
+            }
+        }
+    }
+
+    private void place(Timeout<T> t) {
+        long delta = t.deadlineTick - currentTick;
+        long tick = delta < SPAN ? t.deadlineTick : currentTick + SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        int s = (int) ((tick >>> (BITS * level)) & MASK);
+        Timeout<T> head = slots[level][s];
+        occupied[level] |= 1L << s;
+        t.slot = head.slot;
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+
+    private void unlink(Timeout<T> t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        if (t.next == t.prev) {
+            // Only the sentinel is left.
+            occupied[t.slot / SLOTS] &= ~(1L << (t.slot % SLOTS));
+        }
+        t.prev = null;
+        t.next = null;
+    }
+
+    /** Handle returned by schedule; pass it to cancel. */
+    static final class Timeout<T> {
+        final T item;
+        final long deadlineTick;
+        Timeout<T> prev, next;
+        int slot;   // level * 64 + slot index while linked
+
+        Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        long getDeadlineTick() {
+            return deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package InventoryManagement;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Thread-safe. Stock is a primitive array indexed by the catalog's product handle.
+// getStock is what can still be sold; units held by reserve() are counted separately
+// until they are committed (gone) or released (available again).
+class Warehouse {
+    private String id;
+    private final ProductCatalog catalog;
+    private final StockArray inventory = new StockArray();
+    private final StockArray reserved = new StockArray();
+    private volatile StockListener listener;
+    // Bracket every reserve and release, which move units between the two arrays in two steps.
+    private final AtomicLong movesStarted = new AtomicLong(), movesEnded = new AtomicLong();
+    public Warehouse(String id) { this(id, ProductCatalog.DEFAULT); }
+    public Warehouse(String id, ProductCatalog catalog) { this.id = id; this.catalog = catalog; }
+    public String getId() { return id; }
+    public ProductCatalog getCatalog() { return catalog; }
+    public void addStock(String productId, int qty) { addStock(catalog.intern(productId), qty); }
+    public boolean removeStock(String productId, int qty) {
+        int product = catalog.find(productId);
+        return product < 0 ? qty <= 0 : removeStock(product, qty);
+    }
+    public int getStock(String productId) {
+        int product = catalog.find(productId);
+        return product < 0 ? 0 : getStock(product);
+    }
+    // Handle-based variants, for callers that intern product IDs once up front.
+    public void addStock(int product, int qty) {
+        int after = inventory.add(product, qty);
+        StockListener l = listener;
+        if (l != null && qty != 0) l.stockChanged(this, product, after - qty, after);
+    }
+    public boolean removeStock(int product, int qty) {
+        int after = inventory.tryRemove(product, qty);
+        if (after < 0) return false;
+        StockListener l = listener;
+        if (l != null && qty != 0) l.stockChanged(this, product, after + qty, after);
+        return true;
+    }
+    public int getStock(int product) { return inventory.get(product); }
+    public int getReserved(int product) { return reserved.get(product); }
+    // Available plus reserved: every unit still in the warehouse, held or not. This is what
+    // the ledger records, since holds live only in memory. Retries while a reserve or
+    // release is between its two steps, so the units are never counted twice or missed.
+    public int getOnHand(int product) {
+        while (true) {
+            long ended = movesEnded.get(), started = movesStarted.get();
+            int onHand = inventory.get(product) + reserved.get(product);
+            if (started == ended && movesStarted.get() == started) return onHand;
+            Thread.onSpinWait();
+        }
+    }
+
+    // Two-phase claims. Each step is one CAS loop on available or reserved, never a lock,
+    // so concurrent holds on a hot SKU cannot oversell or lose an update.
+    // Moves qty from available to reserved, if that much is available.
+    public boolean reserve(int product, int qty) {
+        movesStarted.incrementAndGet();
+        try {
+            if (!removeStock(product, qty)) return false;
+            reserved.add(product, qty);
+            return true;
+        } finally {
+            movesEnded.incrementAndGet();
+        }
+    }
+    // Drops qty held units for good (the sale went through).
+    public boolean commitReserved(int product, int qty) { return reserved.tryRemove(product, qty) >= 0; }
+    // Returns qty held units to available.
+    public boolean releaseReserved(int product, int qty) {
+        movesStarted.incrementAndGet();
+        try {
+            if (reserved.tryRemove(product, qty) < 0) return false;
+            addStock(product, qty);
+            return true;
+        } finally {
+            movesEnded.incrementAndGet();
+        }
+    }
+    // One listener per warehouse; InventoryManager uses it to keep its StockViews current.
+    void setStockListener(StockListener listener) { this.listener = listener; }
+}
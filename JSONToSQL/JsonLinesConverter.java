@@ -0,0 +1,278 @@
+package JSONToSQL;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Converts newline-delimited JSON queries to SQL statements.
+ *
+ * Pipeline:
+ * - read: one thread splits the input into lines and groups them into batches
+ *   (files are memory-mapped, so lines are byte slices of the mapping);
+ * - parse + render: a worker pool converts each batch into a block of SQL;
+ * - write: the calling thread writes the blocks in submission order.
+ * The queue between read and write is bounded, so a slow writer throttles the reader.
+ * Each statement is written on its own line, terminated by ';'.
+ */
+public class JsonLinesConverter {
+
+    // Files are mapped in windows of this size; a single line must fit in one window.
+    private static final long MAP_WINDOW = 64L << 20;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+
+    public JsonLinesConverter(int workers, int batchSize, int maxBatchesInFlight) {
+        if (workers <= 0 || batchSize <= 0 || maxBatchesInFlight <= 0) {
+            throw new IllegalArgumentException("workers, batchSize and maxBatchesInFlight must be positive");
+        }
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+    }
+
+    public JsonLinesConverter() {
+        this(Runtime.getRuntime().availableProcessors(), 512, 64);
+    }
+
+    /** Converts a JSON-lines file, reading it through memory-mapped windows. */
+    public long convert(Path input, Writer out) throws IOException {
+        return run(sink -> {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long offset = 0;
+                long lineNo = 1;
+                while (offset < size) {
+                    int length = (int) Math.min(MAP_WINDOW, size - offset);
+                    MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    boolean last = offset + length == size;
+                    List<ByteBuffer> batch = new ArrayList<>(batchSize);
+                    long batchStart = lineNo;
+                    int lineStart = 0;
+                    for (int i = 0; i < length; i++) {
+                        if (map.get(i) != '\n') continue;
+                        batch.add(map.slice(lineStart, i - lineStart));
+                        lineStart = i + 1;
+                        lineNo++;
+                        if (batch.size() == batchSize) {
+                            sink.submit(byteBatch(batch, batchStart));
+                            batch = new ArrayList<>(batchSize);
+                            batchStart = lineNo;
+                        }
+                    }
+                    if (last && lineStart < length) {
+                        batch.add(map.slice(lineStart, length - lineStart));
+                        lineStart = length;
+                    }
+                    if (!batch.isEmpty()) {
+                        sink.submit(byteBatch(batch, batchStart));
+                    }
+                    if (!last && lineStart == 0) {
+                        throw new IOException("Line " + lineNo + " is longer than " + MAP_WINDOW + " bytes");
+                    }
+                    // Remap from the start of the incomplete line.
+                    offset += last ? length : lineStart;
+                }
+            }
+        }, out);
+    }
+
+    /** Converts JSON lines read from a stream (UTF-8). */
+    public long convert(InputStream input, Writer out) throws IOException {
+        return run(sink -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<String> batch = new ArrayList<>(batchSize);
+            long lineNo = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    sink.submit(stringBatch(batch, lineNo));
+                    lineNo += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.submit(stringBatch(batch, lineNo));
+            }
+        }, out);
+    }
+
+    private interface Reading {
+        void readInto(Sink sink) throws IOException, InterruptedException;
+    }
+
+    // Stage handoff: pushes a batch to the pool and queues its future for the writer.
+    private static final class Sink {
+        private final ExecutorService pool;
+        private final BlockingQueue<Future<Batch>> pending;
+        private volatile boolean closed;   // set once the writer stops taking from the queue
+
+        Sink(ExecutorService pool, BlockingQueue<Future<Batch>> pending) {
+            this.pool = pool;
+            this.pending = pending;
+        }
+
+        void submit(Callable<Batch> task) throws InterruptedException {
+            Future<Batch> future = pool.submit(task);
+            if (!enqueue(future)) {
+                future.cancel(true);
+                throw new InterruptedException("Writer has stopped");
+            }
+        }
+
+        // Waits for room in the queue; gives up once the writer has stopped, so the reader never blocks forever.
+        boolean enqueue(Future<Batch> future) throws InterruptedException {
+            while (!closed) {
+                if (pending.offer(future, 100, TimeUnit.MILLISECONDS)) return true;
+            }
+            return false;
+        }
+
+        void close() {
+            closed = true;
+            // Frees any slot the reader is waiting on and stops batches nobody will write.
+            Future<Batch> f;
+            while ((f = pending.poll()) != null) f.cancel(true);
+        }
+    }
+
+    // Converted SQL for one batch; END marks the end of the input.
+    private static final class Batch {
+        static final Batch END = new Batch(null, 0);
+        final String sql;
+        final int statements;
+
+        Batch(String sql, int statements) {
+            this.sql = sql;
+            this.statements = statements;
+        }
+    }
+
+    private long run(Reading reading, Writer out) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(maxBatchesInFlight);
+        Sink sink = new Sink(pool, pending);
+        Thread reader = new Thread(() -> {
+            CompletableFuture<Batch> end = new CompletableFuture<>();
+            try {
+                reading.readInto(sink);
+                end.complete(Batch.END);
+            } catch (InterruptedException e) {
+                end.cancel(false);
+            } catch (Exception e) {
+                end.completeExceptionally(e);
+            }
+            try {
+                // Catching InterruptedException above cleared the flag, so a plain put could wait forever.
+                sink.enqueue(end);
+            } catch (InterruptedException ignored) {
+                // The writer has already given up.
+            }
+        }, "jsonl-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long written = 0;
+        try {
+            while (true) {
+                Batch batch = pending.take().get();
+                if (batch == Batch.END) break;
+                out.write(batch.sql);
+                written += batch.statements;
+            }
+            out.flush();
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } finally {
+            sink.close();
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    private static Callable<Batch> byteBatch(List<ByteBuffer> lines, long firstLine) {
+        return batch(lines, firstLine, JsonLinesConverter::isBlank, SimpleJsonToSqlConverter::convert);
+    }
+
+    private static Callable<Batch> stringBatch(List<String> lines, long firstLine) {
+        return batch(lines, firstLine, String::isBlank, SimpleJsonToSqlConverter::convert);
+    }
+
+    private static <T> Callable<Batch> batch(List<T> lines, long firstLine, Predicate<T> blank,
+                                             BiConsumer<T, StringBuilder> converter) {
+        return () -> {
+            StringBuilder sql = new StringBuilder(lines.size() * 64);
+            int statements = 0;
+            for (int i = 0; i < lines.size(); i++) {
+                T line = lines.get(i);
+                if (blank.test(line)) continue;
+                try {
+                    converter.accept(line, sql);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Line " + (firstLine + i) + ": " + e.getMessage(), e);
+                }
+                sql.append(";\n");
+                statements++;
+            }
+            return new Batch(sql.toString(), statements);
+        };
+    }
+
+    private static boolean isBlank(ByteBuffer line) {
+        for (int i = line.position(); i < line.limit(); i++) {
+            byte b = line.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') return false;
+        }
+        return true;
+    }
+
+    // --- Demo: converts the file given as argument, or a small inline sample ---
+    public static void main(String[] args) throws IOException {
+        JsonLinesConverter converter = new JsonLinesConverter();
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        long count;
+        if (args.length > 0) {
+            count = converter.convert(Paths.get(args[0]), out);
+        } else {
+            String sample = "{\"select\": \"id, name\", \"from\": \"users\", \"limit\": 10}\n"
+                    + "\n"
+                    + "{\"from\": \"orders\", \"where\": \"total > 100\", \"orderBy\": \"total desc\"}\n";
+            count = converter.convert(new ByteArrayInputStream(sample.getBytes(StandardCharsets.UTF_8)), out);
+        }
+        System.err.println(count + " statements written");
+    }
+}
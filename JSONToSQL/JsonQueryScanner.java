@@ -0,0 +1,282 @@
+package JSONToSQL;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass lexer for the flat JSON query format.
+ * The input is scanned once; for every supported key only the [start, end) offsets
+ * of its value are recorded, so no substrings are created. Values are copied
+ * straight into the caller's StringBuilder when the SQL is rendered.
+ * An instance keeps its buffers between calls and is not thread-safe.
+ */
+final class JsonQueryScanner {
+
+    // Slots for the supported keys, in the order the SQL clauses are emitted.
+    static final int SELECT = 0;
+    static final int FROM = 1;
+    static final int WHERE = 2;
+    static final int ORDER_BY = 3;
+    static final int LIMIT = 4;
+    static final int OFFSET = 5;
+    private static final String[] KEYS = {"select", "from", "where", "orderBy", "limit", "offset"};
+
+    private final int[] start = new int[KEYS.length];
+    private final int[] end = new int[KEYS.length];
+    private final boolean[] escaped = new boolean[KEYS.length];
+    private final boolean[] object = new boolean[KEYS.length];
+    private final boolean[] quoted = new boolean[KEYS.length];
+
+    // Reusable buffers for Reader and ByteBuffer input.
+    private final StringBuilder readBuffer = new StringBuilder();
+    private final char[] chunk = new char[8192];
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private CharBuffer decoded = CharBuffer.allocate(0);
+
+    private CharSequence in;
+    private int pos;
+
+    /** Scans a JSON query held in memory. */
+    void scan(CharSequence json) {
+        in = json;
+        pos = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            start[i] = -1;
+            end[i] = -1;
+            escaped[i] = false;
+            object[i] = false;
+            quoted[i] = false;
+        }
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            int keyStart = pos;
+            int keyEnd = skipString();
+            int slot = slotOf(keyStart, keyEnd);
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            readValue(slot);
+            skipWhitespace();
+            char c = next();
+            if (c == '}') return;
+            if (c != ',') throw error("Expected ',' or '}'");
+        }
+    }
+
+    /** Drains the reader into a reusable buffer and scans it. */
+    void scan(Reader reader) throws IOException {
+        readBuffer.setLength(0);
+        int n;
+        while ((n = reader.read(chunk)) != -1) {
+            readBuffer.append(chunk, 0, n);
+        }
+        scan(readBuffer);
+    }
+
+    /** Decodes UTF-8 bytes into a reusable char buffer and scans it. */
+    void scan(ByteBuffer utf8) {
+        int needed = (int) (utf8.remaining() * (double) decoder.maxCharsPerByte());
+        if (decoded.capacity() < needed) {
+            decoded = CharBuffer.allocate(needed);
+        }
+        decoded.clear();
+        try {
+            decoder.reset();
+            CoderResult result = decoder.decode(utf8.duplicate(), decoded, true);
+            if (result.isError()) result.throwException();
+            result = decoder.flush(decoded);
+            if (result.isError()) result.throwException();
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("Input is not valid UTF-8", e);
+        }
+        decoded.flip();
+        scan(decoded);
+    }
+
+    /** True if the key was present with a non-empty value. */
+    boolean has(int slot) {
+        return end[slot] > start[slot];
+    }
+
+    /** True if the value is a JSON object rather than a string or scalar. */
+    boolean isObject(int slot) {
+        return object[slot];
+    }
+
+    /** The scanned input and the raw [valueStart, valueEnd) range of a slot, quotes excluded. */
+    CharSequence input() {
+        return in;
+    }
+
+    int valueStart(int slot) {
+        return start[slot];
+    }
+
+    int valueEnd(int slot) {
+        return end[slot];
+    }
+
+    /** True if the value was a quoted string. */
+    boolean isString(int slot) {
+        return quoted[slot];
+    }
+
+    /** Parses an object value (see isObject) as a structured predicate. */
+    WhereExpr parsePredicate(int slot) {
+        return new WhereParser(in, start[slot], end[slot]).parseAll();
+    }
+
+    /** Appends the value of the given slot, unescaping quoted strings if needed. */
+    void appendTo(int slot, StringBuilder out) {
+        int s = start[slot], e = end[slot];
+        if (!escaped[slot]) {
+            out.append(in, s, e);
+            return;
+        }
+        for (int i = s; i < e; i++) {
+            char c = in.charAt(i);
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char esc = in.charAt(++i);
+            switch (esc) {
+                case 'n': out.append('\n'); break;
+                case 't': out.append('\t'); break;
+                case 'r': out.append('\r'); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'u':
+                    out.append((char) Integer.parseInt(in, i + 1, i + 5, 16));
+                    i += 4;
+                    break;
+                default: out.append(esc); // \" \\ \/
+            }
+        }
+    }
+
+    // Records the value range for a known key, or just skips it.
+    private void readValue(int slot) {
+        char c = peek();
+        int valueStart, valueEnd;
+        boolean hasEscapes = false;
+        if (c == '"') {
+            pos++;
+            valueStart = pos;
+            valueEnd = skipString();
+            for (int i = valueStart; i < valueEnd; i++) {
+                if (in.charAt(i) == '\\') {
+                    hasEscapes = true;
+                    break;
+                }
+            }
+        } else if (c == '{' || c == '[') {
+            valueStart = pos;
+            skipNested();
+            valueEnd = pos;
+        } else {
+            // Numbers and bare literals end at a delimiter; trailing whitespace is trimmed.
+            valueStart = pos;
+            while (pos < in.length()) {
+                char d = in.charAt(pos);
+                if (d == ',' || d == '}') break;
+                pos++;
+            }
+            valueEnd = pos;
+            while (valueEnd > valueStart && Character.isWhitespace(in.charAt(valueEnd - 1))) {
+                valueEnd--;
+            }
+        }
+        // Keys are expected once; keep the first occurrence.
+        if (slot >= 0 && start[slot] < 0) {
+            start[slot] = valueStart;
+            end[slot] = valueEnd;
+            escaped[slot] = hasEscapes;
+            object[slot] = c == '{';
+            quoted[slot] = c == '"';
+        }
+    }
+
+    // Advances past the closing quote and returns the index of that quote.
+    private int skipString() {
+        while (pos < in.length()) {
+            char c = in.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == '"') {
+                return pos++;
+            } else {
+                pos++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    // Skips a nested object or array, honouring strings inside it.
+    private void skipNested() {
+        int depth = 0;
+        while (pos < in.length()) {
+            char c = in.charAt(pos++);
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) return;
+            }
+        }
+        throw error("Unterminated object or array");
+    }
+
+    private int slotOf(int keyStart, int keyEnd) {
+        int len = keyEnd - keyStart;
+        for (int slot = 0; slot < KEYS.length; slot++) {
+            String key = KEYS[slot];
+            if (key.length() != len) continue;
+            int i = 0;
+            while (i < len && in.charAt(keyStart + i) == key.charAt(i)) i++;
+            if (i == len) return slot;
+        }
+        return -1;
+    }
+
+    private void skipWhitespace() {
+        while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) pos++;
+    }
+
+    private char peek() {
+        if (pos >= in.length()) throw error("Unexpected end of input");
+        return in.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c) throw error("Expected '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+}
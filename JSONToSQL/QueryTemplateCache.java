@@ -0,0 +1,429 @@
+package JSONToSQL;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of compiled SQL templates for JSON queries.
+ *
+ * Two queries share a template when they have the same raw shape: the same
+ * keys, the same select/from/orderBy text and the same WHERE once its
+ * literals are masked. A string WHERE is SQL text, masked by a small lexer
+ * (quoted strings and numbers, including fractions and exponents). An object
+ * WHERE is masked as JSON, before it is parsed: string and number values
+ * become placeholders, and the shape also records which of them are equal,
+ * because normalization removes duplicates by value. A hit therefore costs
+ * one lexing pass over the document; the WHERE tree is only parsed,
+ * normalized and rendered on a miss. Masked literals, and a numeric limit and
+ * offset, come back as bind values, so the SQL string of a hit is the same
+ * instance every time and can be used as the key of a prepared-statement
+ * cache. A limit or offset that is not a number (such as "ALL") stays in the
+ * SQL text.
+ */
+public class QueryTemplateCache {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final int capacity;
+    private final Map<String, Template> templates;
+    private long hits, misses, evictions;
+
+    // Per-thread scratch space: the scanner plus buffers for the shape key.
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    public QueryTemplateCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        // Access-ordered map gives LRU eviction.
+        this.templates = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                if (size() > QueryTemplateCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Converts a JSON query to parameterized SQL. The document is lexed once to
+     * read its literals; the SQL text is only compiled on a cache miss.
+     */
+    public ParameterizedQuery convert(CharSequence json) {
+        Scratch s = SCRATCH.get();
+        JsonQueryScanner q = s.scanner;
+        q.scan(json);
+        if (!q.has(JsonQueryScanner.FROM)) {
+            throw new RuntimeException("FROM clause is required");
+        }
+
+        s.literals.clear();
+        s.firstIndex.clear();
+        s.maskedWhere.setLength(0);
+        boolean objectWhere = q.has(JsonQueryScanner.WHERE) && q.isObject(JsonQueryScanner.WHERE);
+        if (objectWhere) {
+            maskJson(q.input(), q.valueStart(JsonQueryScanner.WHERE), q.valueEnd(JsonQueryScanner.WHERE), s);
+        } else if (q.has(JsonQueryScanner.WHERE)) {
+            s.rawWhere.setLength(0);
+            q.appendTo(JsonQueryScanner.WHERE, s.rawWhere);
+            maskLiterals(s.rawWhere, s.maskedWhere, s.literals);
+        }
+        Object limit = q.has(JsonQueryScanner.LIMIT) ? number(s, JsonQueryScanner.LIMIT) : null;
+        Object offset = q.has(JsonQueryScanner.OFFSET) ? number(s, JsonQueryScanner.OFFSET) : null;
+
+        // Shape key: everything that is not a bind value.
+        StringBuilder key = s.key;
+        key.setLength(0);
+        appendKeyPart(q, JsonQueryScanner.SELECT, key);
+        appendKeyPart(q, JsonQueryScanner.FROM, key);
+        key.append(SEPARATOR).append(objectWhere ? '{' : '\'').append(s.maskedWhere);
+        appendKeyPart(q, JsonQueryScanner.ORDER_BY, key);
+        appendPagingKey(q, JsonQueryScanner.LIMIT, limit, key);
+        appendPagingKey(q, JsonQueryScanner.OFFSET, offset, key);
+        String shape = key.toString();
+
+        Template template;
+        synchronized (templates) {
+            template = templates.get(shape);
+            if (template != null) hits++;
+        }
+        if (template == null) {
+            // Compiled outside the lock; two threads missing on one shape build equal templates.
+            template = compile(q, objectWhere, s, limit != null, offset != null);
+            synchronized (templates) {
+                misses++;
+                Template raced = templates.putIfAbsent(shape, template);
+                if (raced != null) template = raced;
+            }
+        }
+
+        int[] slots = template.slots;
+        Object[] binds = new Object[slots.length + (limit != null ? 1 : 0) + (offset != null ? 1 : 0)];
+        int n = 0;
+        for (int slot : slots) binds[n++] = s.literals.get(slot);
+        if (limit != null) binds[n++] = limit;
+        if (offset != null) binds[n] = offset;
+        return new ParameterizedQuery(template.sql, binds);
+    }
+
+    public long hits() {
+        synchronized (templates) { return hits; }
+    }
+
+    public long misses() {
+        synchronized (templates) { return misses; }
+    }
+
+    public long evictions() {
+        synchronized (templates) { return evictions; }
+    }
+
+    public int size() {
+        synchronized (templates) { return templates.size(); }
+    }
+
+    private static Template compile(JsonQueryScanner q, boolean objectWhere, Scratch s,
+                                    boolean limitBind, boolean offsetBind) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (q.has(JsonQueryScanner.SELECT)) {
+            q.appendTo(JsonQueryScanner.SELECT, sql);
+        } else {
+            sql.append('*');
+        }
+        sql.append(" FROM ");
+        q.appendTo(JsonQueryScanner.FROM, sql);
+        int[] slots;
+        if (objectWhere) {
+            WhereExpr where = q.parsePredicate(JsonQueryScanner.WHERE).normalize();
+            BindRenderer renderer = new BindRenderer(sql, s.firstIndex);
+            if (where != WhereExpr.TRUE) {
+                sql.append(" WHERE ");
+                where.accept(renderer);
+            }
+            slots = renderer.slots();
+        } else {
+            if (s.maskedWhere.length() > 0) sql.append(" WHERE ").append(s.maskedWhere);
+            // A string WHERE keeps its placeholders in document order.
+            slots = new int[s.literals.size()];
+            for (int i = 0; i < slots.length; i++) slots[i] = i;
+        }
+        if (q.has(JsonQueryScanner.ORDER_BY)) {
+            sql.append(" ORDER BY ");
+            q.appendTo(JsonQueryScanner.ORDER_BY, sql);
+        }
+        appendPaging(q, JsonQueryScanner.LIMIT, " LIMIT ", limitBind, sql);
+        appendPaging(q, JsonQueryScanner.OFFSET, " OFFSET ", offsetBind, sql);
+        return new Template(sql.toString(), slots);
+    }
+
+    private static void appendPaging(JsonQueryScanner q, int slot, String keyword, boolean bind, StringBuilder sql) {
+        if (!q.has(slot)) return;
+        sql.append(keyword);
+        if (bind) sql.append('?');
+        else q.appendTo(slot, sql);
+    }
+
+    private static void appendKeyPart(JsonQueryScanner q, int slot, StringBuilder key) {
+        key.append(SEPARATOR);
+        if (q.has(slot)) q.appendTo(slot, key);
+    }
+
+    // A bound value only contributes '?'; text such as ALL is part of the shape.
+    private static void appendPagingKey(JsonQueryScanner q, int slot, Object value, StringBuilder key) {
+        key.append(SEPARATOR);
+        if (value != null) key.append('?');
+        else if (q.has(slot)) key.append('=').append(q.input(), q.valueStart(slot), q.valueEnd(slot));
+    }
+
+    // The numeric value of a limit or offset, or null if it is not a number.
+    private static Object number(Scratch s, int slot) {
+        s.rawWhere.setLength(0);
+        s.scanner.appendTo(slot, s.rawWhere);
+        int n = s.rawWhere.length();
+        if (numberEnd(s.rawWhere, 0, n) != n) return null;
+        return WhereParser.number(s.rawWhere.toString());
+    }
+
+    /**
+     * Copies a WHERE expression to 'out', replacing quoted string and numeric
+     * literals with '?' and collecting their values. Identifiers (including
+     * ones with digits such as col1) and double-quoted names are kept as-is.
+     * A sign stays in the text as an operator: x > -5 becomes x > -?.
+     */
+    static void maskLiterals(CharSequence where, StringBuilder out, List<Object> binds) {
+        int i = 0, n = where.length();
+        while (i < n) {
+            char c = where.charAt(i);
+            if (c == '\'') {
+                // SQL string literal; '' is an escaped quote.
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (i < n) {
+                    char d = where.charAt(i++);
+                    if (d == '\'') {
+                        if (i < n && where.charAt(i) == '\'') {
+                            value.append('\'');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(d);
+                    }
+                }
+                binds.add(value.toString());
+                out.append('?');
+            } else if (c == '"') {
+                int end = i + 1;
+                while (end < n && where.charAt(end) != '"') end++;
+                end = Math.min(end + 1, n);
+                out.append(where, i, end);
+                i = end;
+            } else if (numberEnd(where, i, n) > i) {
+                int end = numberEnd(where, i, n);
+                binds.add(WhereParser.number(where.subSequence(i, end).toString()));
+                out.append('?');
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i;
+                while (end < n && (Character.isLetterOrDigit(where.charAt(end)) || where.charAt(end) == '_')) end++;
+                out.append(where, i, end);
+                i = end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * End of the unsigned numeric literal starting at i (digits, then an
+     * optional fraction and exponent, as in 12, 1.5, .5, 1e5 or 2.5E-3), or i
+     * if there is none.
+     */
+    static int numberEnd(CharSequence s, int i, int n) {
+        int p = i;
+        while (p < n && isDigit(s.charAt(p))) p++;
+        boolean digits = p > i;
+        if (p < n && s.charAt(p) == '.') {
+            int f = p + 1;
+            while (f < n && isDigit(s.charAt(f))) f++;
+            if (f > p + 1 || digits) {
+                digits = true;
+                p = f;
+            }
+        }
+        if (!digits) return i;
+        if (p < n && (s.charAt(p) == 'e' || s.charAt(p) == 'E')) {
+            int e = p + 1;
+            if (e < n && (s.charAt(e) == '+' || s.charAt(e) == '-')) e++;
+            int d = e;
+            while (d < n && isDigit(s.charAt(d))) d++;
+            if (d > e) p = d;
+        }
+        return p;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Appends the JSON WHERE in [start, end) to s.maskedWhere without whitespace,
+     * with every string or number value replaced by ?n, where n is the index of
+     * the first equal literal, and collects the values in s.literals. Object
+     * keys, true, false and null are kept, since the parser treats them as
+     * structure.
+     */
+    private static void maskJson(CharSequence in, int start, int end, Scratch s) {
+        StringBuilder out = s.maskedWhere;
+        StringBuilder containers = s.containers;   // '{' or '[' per open level
+        containers.setLength(0);
+        boolean expectKey = false;
+        int i = start;
+        while (i < end) {
+            char c = in.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int close = i + 1;
+                while (in.charAt(close) != '"') close += in.charAt(close) == '\\' ? 2 : 1;
+                if (expectKey) {
+                    out.append(in, i, close + 1);
+                } else {
+                    placeholder(unescape(in, i + 1, close), s);
+                }
+                i = close + 1;
+            } else if (c == '-' || c == '+' || c == '.' || isDigit(c)) {
+                int e = i;
+                while (e < end && "+-0123456789.eE".indexOf(in.charAt(e)) >= 0) e++;
+                String text = in.subSequence(i, e).toString();
+                try {
+                    placeholder(WhereParser.number(text), s);
+                } catch (NumberFormatException bad) {
+                    out.append(text);   // left for the parser to reject on a miss
+                }
+                i = e;
+            } else {
+                if (c == '{' || c == '[') containers.append(c);
+                else if ((c == '}' || c == ']') && containers.length() > 0) containers.setLength(containers.length() - 1);
+                out.append(c);
+                i++;
+                boolean inObject = containers.length() > 0 && containers.charAt(containers.length() - 1) == '{';
+                if (c == '{' || c == ',') expectKey = inObject;
+                else if (c == ':' || c == '[') expectKey = false;
+            }
+        }
+    }
+
+    private static void placeholder(Object value, Scratch s) {
+        Integer first = s.firstIndex.putIfAbsent(value, s.literals.size());
+        s.maskedWhere.append('?').append(first != null ? first.intValue() : s.literals.size());
+        s.literals.add(value);
+    }
+
+    private static String unescape(CharSequence in, int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = in.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char esc = in.charAt(++i);
+            switch (esc) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(in, i + 1, i + 5, 16));
+                    i += 4;
+                    break;
+                default: sb.append(esc);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Renders literals as '?' and records, per placeholder, which literal of
+     * the document it binds. Normalization keeps literal values, so each one
+     * is found by value; equal values are interchangeable.
+     */
+    private static final class BindRenderer extends SqlWhereRenderer {
+        private final Map<Object, Integer> firstIndex;
+        private int[] slots = new int[8];
+        private int count;
+
+        BindRenderer(StringBuilder out, Map<Object, Integer> firstIndex) {
+            super(out);
+            this.firstIndex = firstIndex;
+        }
+
+        @Override
+        protected void appendLiteral(Object value) {
+            Integer slot = firstIndex.get(value);
+            if (slot == null) {
+                // true/false values are part of the shape, so they can stay in the SQL.
+                super.appendLiteral(value);
+                return;
+            }
+            if (count == slots.length) slots = Arrays.copyOf(slots, count * 2);
+            slots[count++] = slot;
+            out.append('?');
+        }
+
+        int[] slots() {
+            return Arrays.copyOf(slots, count);
+        }
+    }
+
+    private static final class Template {
+        final String sql;
+        final int[] slots;   // per placeholder, the index of its literal in document order
+
+        Template(String sql, int[] slots) {
+            this.sql = sql;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Scratch {
+        final JsonQueryScanner scanner = new JsonQueryScanner();
+        final StringBuilder rawWhere = new StringBuilder();
+        final StringBuilder maskedWhere = new StringBuilder();
+        final StringBuilder key = new StringBuilder();
+        final StringBuilder containers = new StringBuilder();
+        final List<Object> literals = new ArrayList<>();
+        final Map<Object, Integer> firstIndex = new HashMap<>();
+    }
+
+    /** SQL text with '?' placeholders and the values to bind, in order. */
+    public static final class ParameterizedQuery {
+        private final String sql;
+        private final Object[] binds;
+
+        ParameterizedQuery(String sql, Object[] binds) {
+            this.sql = sql;
+            this.binds = binds;
+        }
+
+        public String getSql() { return sql; }
+        public Object[] getBinds() { return binds.clone(); }
+
+        @Override
+        public String toString() {
+            return sql + " " + Arrays.toString(binds);
+        }
+    }
+}
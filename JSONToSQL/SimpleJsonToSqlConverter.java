@@ -1,85 +1,120 @@
 package JSONToSQL;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
 public class SimpleJsonToSqlConverter {
 
+    // Scanners keep their buffers between calls, so each thread reuses one.
+    private static final ThreadLocal<JsonQueryScanner> SCANNER =
+            ThreadLocal.withInitial(JsonQueryScanner::new);
+
     /**
      * Converts a JSON query (in a fixed, simple format) to a SQL query.
      * Assumptions:
      * - The JSON is flat and keys appear only once.
-     * - Values are either strings (delimited by double quotes) or numbers.
+     * - Values are either strings (delimited by double quotes) or numbers;
+     *   "where" may also be a predicate object (see WhereExpr).
      * - Supported keys: select, from, where, orderBy, limit, offset.
+     * Whitespace inside quoted values is preserved.
      */
     public static String convert(String json) {
-        // Remove whitespace for easier parsing.
-        String s = json.replaceAll("\\s+", "");
-        
-        // Build SQL query.
+        return convert((CharSequence) json);
+    }
+
+    public static String convert(CharSequence json) {
+        StringBuilder sql = new StringBuilder(json.length());
+        convert(json, sql);
+        return sql.toString();
+    }
+
+    /** Reads the whole query from the reader and converts it. */
+    public static String convert(Reader json) throws IOException {
+        JsonQueryScanner scanner = SCANNER.get();
+        scanner.scan(json);
         StringBuilder sql = new StringBuilder();
-        
-        // SELECT clause (default "*")
-        String select = extractValue(s, "select");
-        sql.append("SELECT ");
-        sql.append(select.isEmpty() ? "*" : select);
-        
+        render(scanner, sql);
+        return sql.toString();
+    }
+
+    /** Converts a UTF-8 encoded query; the buffer's position is left unchanged. */
+    public static String convert(ByteBuffer utf8Json) {
+        StringBuilder sql = new StringBuilder();
+        convert(utf8Json, sql);
+        return sql.toString();
+    }
+
+    /** Appends the SQL for a UTF-8 encoded query to 'sql'. */
+    public static void convert(ByteBuffer utf8Json, StringBuilder sql) {
+        JsonQueryScanner scanner = SCANNER.get();
+        scanner.scan(utf8Json);
+        render(scanner, sql);
+    }
+
+    /**
+     * Appends the SQL for the query to 'sql', so callers converting many
+     * documents can reuse one builder (reset it with setLength(0)).
+     */
+    public static void convert(CharSequence json, StringBuilder sql) {
+        JsonQueryScanner scanner = SCANNER.get();
+        scanner.scan(json);
+        render(scanner, sql);
+    }
+
+    private static void render(JsonQueryScanner q, StringBuilder sql) {
         // FROM clause (required)
-        String from = extractValue(s, "from");
-        if (from.isEmpty()) {
+        if (!q.has(JsonQueryScanner.FROM)) {
             throw new RuntimeException("FROM clause is required");
         }
-        sql.append(" FROM ").append(from);
-        
-        // WHERE clause (optional)
-        String where = extractValue(s, "where");
-        if (!where.isEmpty()) {
-            sql.append(" WHERE ").append(where);
+
+        // SELECT clause (default "*")
+        sql.append("SELECT ");
+        if (q.has(JsonQueryScanner.SELECT)) {
+            q.appendTo(JsonQueryScanner.SELECT, sql);
+        } else {
+            sql.append('*');
+        }
+        sql.append(" FROM ");
+        q.appendTo(JsonQueryScanner.FROM, sql);
+
+        // WHERE clause (optional); dropped if it folds to an always-true predicate
+        int beforeWhere = sql.length();
+        sql.append(" WHERE ");
+        int conditionStart = sql.length();
+        appendWhereCondition(q, sql);
+        if (sql.length() == conditionStart) {
+            sql.setLength(beforeWhere);
         }
-        
         // ORDER BY clause (optional)
-        String orderBy = extractValue(s, "orderBy");
-        if (!orderBy.isEmpty()) {
-            sql.append(" ORDER BY ").append(orderBy);
-        }
-        
+        appendClause(q, JsonQueryScanner.ORDER_BY, " ORDER BY ", sql);
         // LIMIT clause (optional)
-        String limit = extractValue(s, "limit");
-        if (!limit.isEmpty()) {
-            sql.append(" LIMIT ").append(limit);
-        }
-        
+        appendClause(q, JsonQueryScanner.LIMIT, " LIMIT ", sql);
         // OFFSET clause (optional)
-        String offset = extractValue(s, "offset");
-        if (!offset.isEmpty()) {
-            sql.append(" OFFSET ").append(offset);
-        }
-        
-        return sql.toString();
+        appendClause(q, JsonQueryScanner.OFFSET, " OFFSET ", sql);
     }
-    
+
     /**
-     * Extracts the value for a given key from the simple JSON string.
-     * This method assumes the JSON key is in the form: "key":value
-     * where value is either a quoted string or a number.
+     * Appends the WHERE condition, if any. A string value is copied as-is; an
+     * object value is parsed into a WhereExpr, normalized and rendered.
      */
-    private static String extractValue(String s, String key) {
-        String pattern = "\"" + key + "\":";
-        int index = s.indexOf(pattern);
-        if (index == -1) {
-            return "";
+    static void appendWhereCondition(JsonQueryScanner q, StringBuilder sql) {
+        if (!q.has(JsonQueryScanner.WHERE)) return;
+        if (!q.isObject(JsonQueryScanner.WHERE)) {
+            q.appendTo(JsonQueryScanner.WHERE, sql);
+            return;
         }
-        index += pattern.length();
-        char firstChar = s.charAt(index);
-        String value = "";
-        if (firstChar == '\"') {  // string value
-            index++;  // skip opening quote
-            int end = s.indexOf('\"', index);
-            value = s.substring(index, end);
-        } else {  // numeric or unquoted value; end at comma or closing brace
-            int endComma = s.indexOf(',', index);
-            int endBrace = s.indexOf('}', index);
-            int end = (endComma == -1) ? endBrace : Math.min(endComma, endBrace);
-            value = s.substring(index, end);
+        WhereExpr where = q.parsePredicate(JsonQueryScanner.WHERE).normalize();
+        if (where != WhereExpr.TRUE) {
+            where.accept(new SqlWhereRenderer(sql));
+        }
+    }
+
+    private static void appendClause(JsonQueryScanner q, int slot, String keyword, StringBuilder sql) {
+        if (q.has(slot)) {
+            sql.append(keyword);
+            q.appendTo(slot, sql);
         }
-        return value;
     }
     
     // --- Demo ---
@@ -95,6 +130,19 @@ public class SimpleJsonToSqlConverter {
         try {
             String sql = convert(jsonQuery);
             System.out.println("Generated SQL Query:\n" + sql);
+
+            // Same shape with different literals reuses one compiled template.
+            QueryTemplateCache cache = new QueryTemplateCache(256);
+            System.out.println("Parameterized:\n" + cache.convert(jsonQuery));
+            System.out.println(cache.convert(jsonQuery.replace("value1", "value2").replace("100", "20")));
+            System.out.println("Template cache hits=" + cache.hits() + " misses=" + cache.misses());
+
+            // Structured WHERE: parsed, normalized and rendered.
+            String structured = "{\"from\": \"orders\", \"where\": {\"and\": ["
+                    + "{\"status\": {\"in\": [\"open\", \"paid\", \"open\"]}},"
+                    + "{\"and\": [{\"total\": {\"gte\": 100}}, true]},"
+                    + "{\"not\": {\"region\": null}}]}}";
+            System.out.println(convert(structured));
         } catch (Exception e) {
             e.printStackTrace();
         }
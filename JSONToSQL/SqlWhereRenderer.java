@@ -0,0 +1,103 @@
+package JSONToSQL;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Renders a WhereExpr as ANSI SQL. Dialects can subclass and override
+ * appendIdentifier / appendLiteral / appendConstant without re-parsing the tree.
+ */
+public class SqlWhereRenderer implements WhereExpr.Visitor<Void> {
+
+    protected final StringBuilder out;
+
+    public SqlWhereRenderer(StringBuilder out) {
+        this.out = out;
+    }
+
+    public static String render(WhereExpr expr) {
+        StringBuilder sb = new StringBuilder();
+        expr.accept(new SqlWhereRenderer(sb));
+        return sb.toString();
+    }
+
+    protected void appendIdentifier(String column) {
+        out.append(column);
+    }
+
+    protected void appendLiteral(Object value) {
+        if (value instanceof String) {
+            out.append('\'').append(((String) value).replace("'", "''")).append('\'');
+        } else if (value instanceof BigDecimal) {
+            out.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Boolean) {
+            out.append(((Boolean) value) ? "TRUE" : "FALSE");
+        } else {
+            out.append(value);
+        }
+    }
+
+    // Written as comparisons so dialects without a boolean type accept them.
+    protected void appendConstant(boolean value) {
+        out.append(value ? "1 = 1" : "1 = 0");
+    }
+
+    public Void visitConstant(WhereExpr.Constant c) {
+        appendConstant(c.getValue());
+        return null;
+    }
+
+    public Void visitAnd(WhereExpr.And and) {
+        appendJoined(and.getTerms(), " AND ");
+        return null;
+    }
+
+    public Void visitOr(WhereExpr.Or or) {
+        appendJoined(or.getTerms(), " OR ");
+        return null;
+    }
+
+    public Void visitNot(WhereExpr.Not not) {
+        out.append("NOT (");
+        not.getTerm().accept(this);
+        out.append(')');
+        return null;
+    }
+
+    public Void visitComparison(WhereExpr.Comparison cmp) {
+        appendIdentifier(cmp.getColumn());
+        out.append(' ').append(cmp.getOp().sql()).append(' ');
+        appendLiteral(cmp.getValue());
+        return null;
+    }
+
+    public Void visitIn(WhereExpr.In in) {
+        appendIdentifier(in.getColumn());
+        out.append(in.isNegated() ? " NOT IN (" : " IN (");
+        List<Object> values = in.getValues();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) out.append(", ");
+            appendLiteral(values.get(i));
+        }
+        out.append(')');
+        return null;
+    }
+
+    public Void visitIsNull(WhereExpr.IsNull isNull) {
+        appendIdentifier(isNull.getColumn());
+        out.append(isNull.isNegated() ? " IS NOT NULL" : " IS NULL");
+        return null;
+    }
+
+    // Nested AND/OR terms are parenthesized so precedence never depends on the reader.
+    private void appendJoined(List<WhereExpr> terms, String separator) {
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) out.append(separator);
+            WhereExpr term = terms.get(i);
+            boolean group = term instanceof WhereExpr.And || term instanceof WhereExpr.Or;
+            if (group) out.append('(');
+            term.accept(this);
+            if (group) out.append(')');
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package JSONToSQL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Typed expression tree for a structured WHERE clause.
+ *
+ * JSON form (see WhereParser):
+ *   {"and": [p, ...]}, {"or": [p, ...]}, {"not": p}, true, false,
+ *   {"column": value}                    -- equality (null means IS NULL)
+ *   {"column": {"gt": 5, "lte": 10}}     -- operators: eq, ne, lt, lte, gt, gte, in, nin
+ *   {"column": ["a", "b"]}               -- shorthand for in
+ * Several keys in one object are ANDed together.
+ *
+ * Nodes are immutable, so a parsed and normalized tree can be cached and
+ * rendered by any number of Visitor implementations (see SqlWhereRenderer).
+ */
+public abstract class WhereExpr {
+
+    public static final WhereExpr TRUE = new Constant(true);
+    public static final WhereExpr FALSE = new Constant(false);
+
+    /** Parses a JSON predicate object. */
+    public static WhereExpr parse(CharSequence json) {
+        return new WhereParser(json, 0, json.length()).parseAll();
+    }
+
+    /**
+     * Returns an equivalent, simplified tree: constants folded, nested AND/OR
+     * flattened, duplicate terms and in-list values removed, NOT pushed into
+     * comparisons, and always-true terms dropped.
+     */
+    public abstract WhereExpr normalize();
+
+    public abstract <R> R accept(Visitor<R> visitor);
+
+    public interface Visitor<R> {
+        R visitConstant(Constant c);
+        R visitAnd(And and);
+        R visitOr(Or or);
+        R visitNot(Not not);
+        R visitComparison(Comparison cmp);
+        R visitIn(In in);
+        R visitIsNull(IsNull isNull);
+    }
+
+    public enum Op {
+        EQ("="), NE("<>"), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        private final String sql;
+
+        Op(String sql) {
+            this.sql = sql;
+        }
+
+        public String sql() { return sql; }
+
+        Op negate() {
+            switch (this) {
+                case EQ: return NE;
+                case NE: return EQ;
+                case LT: return GE;
+                case LE: return GT;
+                case GT: return LE;
+                default: return LT; // GE
+            }
+        }
+    }
+
+    // --- Node types ---
+
+    public static final class Constant extends WhereExpr {
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        public boolean getValue() { return value; }
+
+        public WhereExpr normalize() { return this; }
+
+        public <R> R accept(Visitor<R> v) { return v.visitConstant(this); }
+    }
+
+    public static final class And extends WhereExpr {
+        private final List<WhereExpr> terms;
+
+        public And(List<WhereExpr> terms) {
+            this.terms = Collections.unmodifiableList(new ArrayList<>(terms));
+        }
+
+        public List<WhereExpr> getTerms() { return terms; }
+
+        public WhereExpr normalize() {
+            Set<WhereExpr> out = new LinkedHashSet<>();
+            if (!collect(terms, true, out)) return FALSE;
+            if (out.isEmpty()) return TRUE;
+            if (out.size() == 1) return out.iterator().next();
+            return new And(new ArrayList<>(out));
+        }
+
+        public <R> R accept(Visitor<R> v) { return v.visitAnd(this); }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof And && terms.equals(((And) o).terms);
+        }
+
+        @Override
+        public int hashCode() { return 31 * terms.hashCode() + 1; }
+    }
+
+    public static final class Or extends WhereExpr {
+        private final List<WhereExpr> terms;
+
+        public Or(List<WhereExpr> terms) {
+            this.terms = Collections.unmodifiableList(new ArrayList<>(terms));
+        }
+
+        public List<WhereExpr> getTerms() { return terms; }
+
+        public WhereExpr normalize() {
+            Set<WhereExpr> out = new LinkedHashSet<>();
+            if (!collect(terms, false, out)) return TRUE;
+            if (out.isEmpty()) return FALSE;
+            if (out.size() == 1) return out.iterator().next();
+            return new Or(new ArrayList<>(out));
+        }
+
+        public <R> R accept(Visitor<R> v) { return v.visitOr(this); }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Or && terms.equals(((Or) o).terms);
+        }
+
+        @Override
+        public int hashCode() { return 31 * terms.hashCode() + 2; }
+    }
+
+    /**
+     * Normalizes 'terms' of an AND (isAnd) or OR into 'out', flattening nested
+     * nodes of the same kind and dropping the identity constant.
+     * Returns false if a term short-circuits the whole node.
+     */
+    private static boolean collect(List<WhereExpr> terms, boolean isAnd, Set<WhereExpr> out) {
+        for (WhereExpr term : terms) {
+            WhereExpr t = term.normalize();
+            if (t instanceof Constant) {
+                if (((Constant) t).value != isAnd) return false;
+                continue;
+            }
+            if (isAnd && t instanceof And) {
+                out.addAll(((And) t).terms);
+            } else if (!isAnd && t instanceof Or) {
+                out.addAll(((Or) t).terms);
+            } else {
+                out.add(t);
+            }
+        }
+        return true;
+    }
+
+    public static final class Not extends WhereExpr {
+        private final WhereExpr term;
+
+        public Not(WhereExpr term) {
+            this.term = term;
+        }
+
+        public WhereExpr getTerm() { return term; }
+
+        public WhereExpr normalize() {
+            WhereExpr t = term.normalize();
+            if (t instanceof Constant) return ((Constant) t).value ? FALSE : TRUE;
+            if (t instanceof Not) return ((Not) t).term;
+            if (t instanceof Comparison) {
+                Comparison c = (Comparison) t;
+                return new Comparison(c.column, c.op.negate(), c.value);
+            }
+            if (t instanceof In) {
+                In in = (In) t;
+                return new In(in.column, in.values, !in.negated);
+            }
+            if (t instanceof IsNull) {
+                IsNull n = (IsNull) t;
+                return new IsNull(n.column, !n.negated);
+            }
+            return new Not(t);
+        }
+
+        public <R> R accept(Visitor<R> v) { return v.visitNot(this); }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Not && term.equals(((Not) o).term);
+        }
+
+        @Override
+        public int hashCode() { return 31 * term.hashCode() + 3; }
+    }
+
+    /** column op literal; the literal is a String, Long, BigDecimal or Boolean. */
+    public static final class Comparison extends WhereExpr {
+        private final String column;
+        private final Op op;
+        private final Object value;
+
+        public Comparison(String column, Op op, Object value) {
+            this.column = column;
+            this.op = op;
+            this.value = Objects.requireNonNull(value, "Use IsNull for null comparisons");
+        }
+
+        public String getColumn() { return column; }
+        public Op getOp() { return op; }
+        public Object getValue() { return value; }
+
+        public WhereExpr normalize() { return this; }
+
+        public <R> R accept(Visitor<R> v) { return v.visitComparison(this); }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Comparison)) return false;
+            Comparison c = (Comparison) o;
+            return column.equals(c.column) && op == c.op && value.equals(c.value);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(column, op, value); }
+    }
+
+    public static final class In extends WhereExpr {
+        private final String column;
+        private final List<Object> values;
+        private final boolean negated;
+
+        public In(String column, List<Object> values, boolean negated) {
+            this.column = column;
+            this.values = Collections.unmodifiableList(new ArrayList<>(values));
+            this.negated = negated;
+        }
+
+        public String getColumn() { return column; }
+        public List<Object> getValues() { return values; }
+        public boolean isNegated() { return negated; }
+
+        public WhereExpr normalize() {
+            Set<Object> distinct = new LinkedHashSet<>(values);
+            // x IN () is always false; x NOT IN () is always true.
+            if (distinct.isEmpty()) return negated ? TRUE : FALSE;
+            if (distinct.size() == 1) {
+                return new Comparison(column, negated ? Op.NE : Op.EQ, distinct.iterator().next());
+            }
+            if (distinct.size() == values.size()) return this;
+            return new In(column, new ArrayList<>(distinct), negated);
+        }
+
+        public <R> R accept(Visitor<R> v) { return v.visitIn(this); }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof In)) return false;
+            In in = (In) o;
+            return column.equals(in.column) && negated == in.negated && values.equals(in.values);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(column, values, negated); }
+    }
+
+    public static final class IsNull extends WhereExpr {
+        private final String column;
+        private final boolean negated;
+
+        public IsNull(String column, boolean negated) {
+            this.column = column;
+            this.negated = negated;
+        }
+
+        public String getColumn() { return column; }
+        public boolean isNegated() { return negated; }
+
+        public WhereExpr normalize() { return this; }
+
+        public <R> R accept(Visitor<R> v) { return v.visitIsNull(this); }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof IsNull)) return false;
+            IsNull n = (IsNull) o;
+            return column.equals(n.column) && negated == n.negated;
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(column, negated); }
+    }
+}
@@ -0,0 +1,243 @@
+package JSONToSQL;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser from a JSON predicate to a WhereExpr tree.
+ * Reads the [start, end) range of the input directly, so the converter can
+ * hand over the offsets recorded by JsonQueryScanner without copying.
+ */
+final class WhereParser {
+
+    private final CharSequence in;
+    private final int end;
+    private int pos;
+
+    WhereParser(CharSequence in, int start, int end) {
+        this.in = in;
+        this.pos = start;
+        this.end = end;
+    }
+
+    WhereExpr parseAll() {
+        WhereExpr expr = parsePredicate();
+        skipWhitespace();
+        if (pos != end) throw error("Unexpected trailing input");
+        return expr;
+    }
+
+    private WhereExpr parsePredicate() {
+        skipWhitespace();
+        char c = peek();
+        if (c == 't' || c == 'f') {
+            return ((Boolean) parseLiteral()) ? WhereExpr.TRUE : WhereExpr.FALSE;
+        }
+        if (c != '{') throw error("Expected predicate object");
+        pos++;
+        List<WhereExpr> terms = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return WhereExpr.TRUE;
+        }
+        do {
+            String key = parseString();
+            expect(':');
+            switch (key) {
+                case "and":
+                    terms.add(new WhereExpr.And(parsePredicateList()));
+                    break;
+                case "or":
+                    terms.add(new WhereExpr.Or(parsePredicateList()));
+                    break;
+                case "not":
+                    terms.add(new WhereExpr.Not(parsePredicate()));
+                    break;
+                default:
+                    parseColumnCondition(key, terms);
+            }
+        } while (nextSeparator('}'));
+        return terms.size() == 1 ? terms.get(0) : new WhereExpr.And(terms);
+    }
+
+    private List<WhereExpr> parsePredicateList() {
+        skipWhitespace();
+        expect('[');
+        List<WhereExpr> list = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        do {
+            list.add(parsePredicate());
+        } while (nextSeparator(']'));
+        return list;
+    }
+
+    // "column": literal | [literals] | {"op": value, ...}
+    private void parseColumnCondition(String column, List<WhereExpr> terms) {
+        skipWhitespace();
+        char c = peek();
+        if (c == '[') {
+            terms.add(new WhereExpr.In(column, parseLiteralList(), false));
+            return;
+        }
+        if (c != '{') {
+            terms.add(comparison(column, WhereExpr.Op.EQ, parseLiteral()));
+            return;
+        }
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            throw error("Empty condition for column " + column);
+        }
+        do {
+            String op = parseString();
+            expect(':');
+            switch (op) {
+                case "eq":  terms.add(comparison(column, WhereExpr.Op.EQ, parseLiteral())); break;
+                case "ne":  terms.add(comparison(column, WhereExpr.Op.NE, parseLiteral())); break;
+                case "lt":  terms.add(comparison(column, WhereExpr.Op.LT, parseLiteral())); break;
+                case "lte": terms.add(comparison(column, WhereExpr.Op.LE, parseLiteral())); break;
+                case "gt":  terms.add(comparison(column, WhereExpr.Op.GT, parseLiteral())); break;
+                case "gte": terms.add(comparison(column, WhereExpr.Op.GE, parseLiteral())); break;
+                case "in":  terms.add(new WhereExpr.In(column, parseLiteralList(), false)); break;
+                case "nin": terms.add(new WhereExpr.In(column, parseLiteralList(), true)); break;
+                default: throw error("Unknown operator '" + op + "'");
+            }
+        } while (nextSeparator('}'));
+    }
+
+    private WhereExpr comparison(String column, WhereExpr.Op op, Object value) {
+        if (value == null) {
+            if (op != WhereExpr.Op.EQ && op != WhereExpr.Op.NE) {
+                throw error("null can only be compared with eq or ne");
+            }
+            return new WhereExpr.IsNull(column, op == WhereExpr.Op.NE);
+        }
+        return new WhereExpr.Comparison(column, op, value);
+    }
+
+    private List<Object> parseLiteralList() {
+        skipWhitespace();
+        expect('[');
+        List<Object> values = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return values;
+        }
+        do {
+            Object value = parseLiteral();
+            if (value == null) throw error("null is not allowed in an in-list");
+            values.add(value);
+        } while (nextSeparator(']'));
+        return values;
+    }
+
+    // String, Long, BigDecimal, Boolean or null.
+    private Object parseLiteral() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') return parseString();
+        if (matchWord("true")) return Boolean.TRUE;
+        if (matchWord("false")) return Boolean.FALSE;
+        if (matchWord("null")) return null;
+        int s = pos;
+        while (pos < end && "+-0123456789.eE".indexOf(in.charAt(pos)) >= 0) pos++;
+        if (s == pos) throw error("Expected literal");
+        String number = in.subSequence(s, pos).toString();
+        try {
+            return number(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    /**
+     * The value of a numeric literal: Long when integral and in range, else
+     * BigDecimal. Throws NumberFormatException if the text is not a number.
+     */
+    static Object number(String text) {
+        BigDecimal d = new BigDecimal(text).stripTrailingZeros();
+        // Integral values become Long so 5 and 5.0 compare equal when deduplicating.
+        if (d.scale() <= 0) {
+            try {
+                return d.longValueExact();
+            } catch (ArithmeticException tooLarge) {
+                return d;
+            }
+        }
+        return d;
+    }
+
+    private String parseString() {
+        skipWhitespace();
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (pos < end) {
+            char c = in.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char esc = in.charAt(pos++);
+            switch (esc) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(in, pos, pos + 4, 16));
+                    pos += 4;
+                    break;
+                default: sb.append(esc);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private boolean matchWord(String word) {
+        int n = word.length();
+        if (end - pos < n) return false;
+        for (int i = 0; i < n; i++) {
+            if (in.charAt(pos + i) != word.charAt(i)) return false;
+        }
+        pos += n;
+        return true;
+    }
+
+    // Consumes ',' (more elements follow) or the closing character.
+    private boolean nextSeparator(char close) {
+        skipWhitespace();
+        char c = peek();
+        pos++;
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw error("Expected ',' or '" + close + "'");
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && Character.isWhitespace(in.charAt(pos))) pos++;
+    }
+
+    private char peek() {
+        if (pos >= end) throw error("Unexpected end of where clause");
+        return in.charAt(pos);
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peek() != c) throw error("Expected '" + c + "'");
+        pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("where: " + message + " at position " + pos);
+    }
+}
@@ -0,0 +1,488 @@
+package SocialNetwork;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe friendship store where friendship is mutual.
+ *
+ * For users created here, addFriend makes both users friends of each other
+ * and removeFriend ends it for both, in one atomic step: no reader ever sees
+ * one direction without the other. A friend created elsewhere is matched by
+ * id; addFriend throws IllegalArgumentException if there is no user here with
+ * that id.
+ *
+ * Each user's friends are an immutable sorted int[] row, replaced on every
+ * change. A writer locks the stripes of both users, always the lower stripe
+ * first so two writers cannot deadlock, and installs both new rows under one
+ * commit version taken from a shared counter. Writers touching unrelated
+ * users usually take different stripes and do not wait on each other's locks,
+ * though they all share the counter.
+ *
+ * importFriendships commits in batches instead of per friendship: it sorts a
+ * batch's half-edges by user, takes every stripe, merges each user's new
+ * friends into their row with one copy, and publishes the batch as a single
+ * version, so a user gaining d friends costs O(d) copying per batch rather
+ * than O(d^2), and the import waits for visibility once per batch.
+ *
+ * Readers never lock. A commit becomes visible only once it and every
+ * earlier commit have installed their rows: finished commits are marked in
+ * a ring, and whichever writer closes a gap moves the visible version
+ * forward past every finished commit. addFriend and removeFriend return only
+ * once the version they acted on is visible, after releasing their locks, so
+ * a thread always reads its own writes and a false answer is never based on
+ * a change readers cannot see yet. A reader reads the visible version
+ * and, for each user, takes the newest row no newer than it; each row links
+ * to the one it replaced, so a row changed since is skipped. A Snapshot
+ * pins one version for as many reads as needed. Old rows are unlinked once
+ * neither an open snapshot nor the visible version needs them; a reader
+ * without a snapshot that loses its row to this simply starts again.
+ */
+class ConcurrentSocialGraph implements FriendGraph {
+
+    private static final int CHUNK_BITS = 12, CHUNK = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << 16;
+    private static final int STRIPE_BITS = 10;
+    private static final int RING = 1024;   // commits that may be in progress at once
+    private static final int IMPORT_BATCH = 1 << 18;   // friendships per import commit
+    private static final int MERGE_SPLIT = 1 << 13;    // half-edges one merge task handles alone
+    private static final Row EMPTY = new Row(new int[0], 0, null);
+
+    private final ConcurrentHashMap<String, User> byId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextVertex = new AtomicInteger();
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final ReentrantLock[] stripes = new ReentrantLock[1 << STRIPE_BITS];
+
+    private final AtomicLong tickets = new AtomicLong();
+    private final AtomicLong visible = new AtomicLong();
+    private final AtomicLongArray finished = new AtomicLongArray(RING);
+    private final Set<Snapshot> open = ConcurrentHashMap.newKeySet();
+
+    ConcurrentSocialGraph() {
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new ReentrantLock();
+    }
+
+    /** Creates a user whose friendships are stored here. Ids must be unique. */
+    User addUser(String id, String name) {
+        int v = nextVertex.getAndIncrement();
+        if (v >= MAX_CHUNKS * CHUNK) throw new IllegalStateException("Too many users");
+        User user = new User(this, v, id, name);
+        // A rejected duplicate leaves an unused vertex behind, with no friends.
+        if (byId.putIfAbsent(id, user) != null) throw new IllegalArgumentException("Duplicate user id " + id);
+        chunk(v).users.set(v & (CHUNK - 1), user);
+        return user;
+    }
+
+    /** The user with this id, or null. */
+    User getUser(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Makes user and friend friends of each other. Returns false if they
+     * already were; throws IllegalArgumentException if friend's id has no user here.
+     */
+    @Override
+    public boolean addFriend(User user, User friend) {
+        int a = vertexOf(user);
+        if (friend == null || friend.equals(user)) return false;
+        int b = vertexOf(friend, false);
+        if (b < 0) throw new IllegalArgumentException("No user with id " + friend.getId() + " in this graph");
+        return update(a, b, true);
+    }
+
+    /** Ends the friendship in both directions. Returns false if there was none. */
+    @Override
+    public boolean removeFriend(User user, User friend) {
+        int a = vertexOf(user);
+        int b = vertexOf(friend, false);
+        return b >= 0 && update(a, b, false);
+    }
+
+    /** The user's friends as of now, as an unmodifiable set that later changes do not affect. */
+    @Override
+    public Set<User> getFriends(User user) {
+        int v = vertexOf(user);
+        while (true) {
+            Row row = rowAt(v, visible.get());
+            if (row != null) return new Members(row.friends);
+        }
+    }
+
+    /** Friends of friends, excluding the user and their friends, all read from one snapshot. */
+    @Override
+    public Set<User> getFriendsOfFriends(User user) {
+        int v = vertexOf(user);
+        try (Snapshot s = snapshot()) {
+            int[] own = s.row(v);
+            int total = 0;
+            for (int f : own) total += s.row(f).length;
+            int[] all = new int[total];
+            int k = 0;
+            for (int f : own) {
+                int[] row = s.row(f);
+                System.arraycopy(row, 0, all, k, row.length);
+                k += row.length;
+            }
+            Arrays.sort(all);
+            int n = 0;
+            for (int i = 0; i < total; i++) {
+                int t = all[i];
+                if ((n > 0 && all[n - 1] == t) || t == v || Arrays.binarySearch(own, t) >= 0) continue;
+                all[n++] = t;
+            }
+            return new Members(Arrays.copyOf(all, n));
+        }
+    }
+
+    /** Whether a and b are friends as of now. */
+    boolean areFriends(User a, User b) {
+        int va = vertexOf(a), vb = vertexOf(b);
+        while (true) {
+            Row row = rowAt(va, visible.get());
+            if (row != null) return Arrays.binarySearch(row.friends, vb) >= 0;
+        }
+    }
+
+    /** Pins the current state for consistent reads across users until closed. */
+    Snapshot snapshot() {
+        Snapshot s = new Snapshot();
+        // Registered before the version is read, so no writer can unlink the rows it will need.
+        open.add(s);
+        s.version = visible.get();
+        return s;
+    }
+
+    /**
+     * Adds every friendship a[i]-b[i], as addFriend would, using the pool's
+     * threads. Each batch of IMPORT_BATCH friendships is one commit: readers
+     * see all of it or none of it, and other writers wait while it installs.
+     * A friend with no user here throws IllegalArgumentException before its
+     * batch commits; earlier batches stay in place.
+     */
+    void importFriendships(User[] a, User[] b, ForkJoinPool pool) {
+        if (a.length != b.length) throw new IllegalArgumentException("Arrays differ in length");
+        for (int from = 0; from < a.length; from += IMPORT_BATCH) {
+            long[] edges = halfEdges(a, b, from, Math.min(a.length, from + IMPORT_BATCH));
+            // Sorted by user, then friend, so each user's new friends form one sorted run.
+            pool.submit(() -> Arrays.parallelSort(edges)).join();
+            long version;
+            for (ReentrantLock stripe : stripes) stripe.lock();   // ascending, like update
+            try {
+                version = tickets.incrementAndGet();
+                pool.invoke(new Merge(edges, 0, edges.length, version, floor()));
+            } finally {
+                for (ReentrantLock stripe : stripes) stripe.unlock();
+            }
+            publish(version);
+            while (visible.get() < version) Thread.yield();
+        }
+    }
+
+    // Both directions of each friendship in [from, to) as (user << 32 | friend), skipping those addFriend would.
+    // Throws, as addFriend does, for a friend whose id has no user here.
+    private long[] halfEdges(User[] a, User[] b, int from, int to) {
+        long[] edges = new long[2 * (to - from)];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            int u = vertexOf(a[i]);
+            if (b[i] == null) continue;
+            int f = vertexOf(b[i], false);
+            if (f < 0) throw new IllegalArgumentException("No user with id " + b[i].getId() + " in this graph");
+            if (f == u) continue;
+            edges[n++] = (long) u << 32 | f;
+            edges[n++] = (long) f << 32 | u;
+        }
+        return n == edges.length ? edges : Arrays.copyOf(edges, n);
+    }
+
+    private boolean update(int a, int b, boolean add) {
+        int sa = stripe(a), sb = stripe(b);
+        ReentrantLock first = stripes[Math.min(sa, sb)], second = stripes[Math.max(sa, sb)];
+        long version;   // the commit this call made, or the one its answer was read from
+        boolean changed = false;
+        first.lock();
+        try {
+            if (second != first) second.lock();
+            try {
+                Row rowA = head(a), rowB = head(b);
+                int[] newA = add ? with(rowA.friends, b) : without(rowA.friends, b);
+                if (newA == null) {
+                    version = rowA.version;
+                } else {
+                    // Both directions always change together, so b's row needs the same change.
+                    int[] newB = add ? with(rowB.friends, a) : without(rowB.friends, a);
+                    version = tickets.incrementAndGet();
+                    long floor = floor();
+                    setHead(a, new Row(newA, version, trim(rowA, floor)));
+                    setHead(b, new Row(newB, version, trim(rowB, floor)));
+                    changed = true;
+                }
+            } finally {
+                if (second != first) second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+        // Waiting happens with no locks held, so the commits waited on can always finish.
+        if (changed) publish(version);
+        while (visible.get() < version) Thread.yield();
+        return changed;
+    }
+
+    // Marks the commit finished, then moves the visible version past every finished commit in a row.
+    private void publish(long version) {
+        while (version - visible.get() > RING) Thread.yield();   // ring slot still in use
+        finished.set((int) (version % RING), version);
+        long v = visible.get();
+        while (finished.get((int) ((v + 1) % RING)) == v + 1) {
+            if (visible.compareAndSet(v, v + 1)) v++;
+            else v = visible.get();
+        }
+    }
+
+    // Oldest version any reader may still ask for; rows older than the newest at or below it can go.
+    private long floor() {
+        long floor = visible.get();
+        for (Snapshot s : open) {
+            long v = s.version;
+            if (v < 0) return -1;   // still registering: keep everything
+            floor = Math.min(floor, v);
+        }
+        return floor;
+    }
+
+    // Drops the history behind the newest row at or below floor, and returns row.
+    private static Row trim(Row row, long floor) {
+        if (floor < 0) return row;
+        for (Row r = row; r != null; r = r.previous) {
+            if (r.version <= floor) {
+                if (r.previous != null) r.previous = null;
+                break;
+            }
+        }
+        return row;
+    }
+
+    // The newest row of v no newer than version, or null if it has been unlinked.
+    private Row rowAt(int v, long version) {
+        Row r = head(v);
+        while (r != null && r.version > version) r = r.previous;
+        return r;
+    }
+
+    private Row head(int v) {
+        Row r = chunk(v).rows.get(v & (CHUNK - 1));
+        return r == null ? EMPTY : r;
+    }
+
+    private void setHead(int v, Row row) {
+        chunk(v).rows.set(v & (CHUNK - 1), row);
+    }
+
+    private Chunk chunk(int v) {
+        int i = v >>> CHUNK_BITS;
+        Chunk c = chunks.get(i);
+        if (c == null) {
+            chunks.compareAndSet(i, null, new Chunk());
+            c = chunks.get(i);
+        }
+        return c;
+    }
+
+    private User user(int v) {
+        return chunk(v).users.get(v & (CHUNK - 1));
+    }
+
+    // Lock stripes are taken in ascending order, so two writers never wait on each other in a cycle.
+    private static int stripe(int v) {
+        return (v * 0x9E3779B9) >>> (32 - STRIPE_BITS);
+    }
+
+    private int vertexOf(User user) {
+        return vertexOf(user, true);
+    }
+
+    // The user's vertex here. A user from elsewhere is an error if required, else matched by id (-1 if none).
+    private int vertexOf(User user, boolean required) {
+        if (user != null && user.graph == this) return user.vertex;
+        if (required) throw new IllegalArgumentException(user + " is not a user of this graph");
+        User own = user == null ? null : byId.get(user.getId());
+        return own == null ? -1 : own.vertex;
+    }
+
+    // row plus t, or null if t is already in it.
+    private static int[] with(int[] row, int t) {
+        int at = Arrays.binarySearch(row, t);
+        if (at >= 0) return null;
+        at = -at - 1;
+        int[] out = new int[row.length + 1];
+        System.arraycopy(row, 0, out, 0, at);
+        out[at] = t;
+        System.arraycopy(row, at, out, at + 1, row.length - at);
+        return out;
+    }
+
+    // row minus t, or null if t is not in it.
+    private static int[] without(int[] row, int t) {
+        int at = Arrays.binarySearch(row, t);
+        if (at < 0) return null;
+        int[] out = new int[row.length - 1];
+        System.arraycopy(row, 0, out, 0, at);
+        System.arraycopy(row, at + 1, out, at, row.length - at - 1);
+        return out;
+    }
+
+    /** One user's friends from one commit on; immutable apart from unlinking old history. */
+    private static final class Row {
+        final int[] friends;
+        final long version;
+        volatile Row previous;
+
+        Row(int[] friends, long version, Row previous) {
+            this.friends = friends;
+            this.version = version;
+            this.previous = previous;
+        }
+    }
+
+    private static final class Chunk {
+        final AtomicReferenceArray<Row> rows = new AtomicReferenceArray<>(CHUNK);
+        final AtomicReferenceArray<User> users = new AtomicReferenceArray<>(CHUNK);
+    }
+
+    /** Every read through one snapshot sees the graph as of the moment it was taken. */
+    final class Snapshot implements AutoCloseable {
+        private volatile long version = -1;
+
+        Set<User> getFriends(User user) {
+            return new Members(row(vertexOf(user)));
+        }
+
+        boolean areFriends(User a, User b) {
+            return Arrays.binarySearch(row(vertexOf(a)), vertexOf(b)) >= 0;
+        }
+
+        private int[] row(int v) {
+            return rowAt(v, version).friends;
+        }
+
+        @Override
+        public void close() {
+            open.remove(this);
+        }
+    }
+
+    // Installs, for each user with half-edges in edges[from, to), one row with all their new friends.
+    @SuppressWarnings("serial")   // fork-join tasks are never serialized
+    private final class Merge extends RecursiveAction {
+        private final long[] edges;
+        private final int from, to;
+        private final long version, floor;
+
+        Merge(long[] edges, int from, int to, long version, long floor) {
+            this.edges = edges;
+            this.from = from;
+            this.to = to;
+            this.version = version;
+            this.floor = floor;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MERGE_SPLIT) {
+                // Split at a user boundary near the middle, so no row is written by two tasks.
+                int mid = (from + to) >>> 1;
+                int user = (int) (edges[mid] >>> 32);
+                while (mid > from && (int) (edges[mid - 1] >>> 32) == user) mid--;
+                if (mid == from) {
+                    while (mid < to && (int) (edges[mid] >>> 32) == user) mid++;
+                }
+                if (mid > from && mid < to) {
+                    invokeAll(new Merge(edges, from, mid, version, floor), new Merge(edges, mid, to, version, floor));
+                    return;
+                }
+            }
+            for (int i = from; i < to; ) {
+                int v = (int) (edges[i] >>> 32);
+                int j = i;
+                while (j < to && (int) (edges[j] >>> 32) == v) j++;
+                Row row = head(v);
+                int[] merged = merge(row.friends, edges, i, j);
+                if (merged != null) setHead(v, new Row(merged, version, trim(row, floor)));
+                i = j;
+            }
+        }
+    }
+
+    // row plus the friends in the sorted half-edges edges[from, to), or null if it already has them all.
+    private static int[] merge(int[] row, long[] edges, int from, int to) {
+        int[] out = new int[row.length + to - from];
+        int i = 0, j = from, k = 0;
+        while (i < row.length || j < to) {
+            int x = i < row.length ? row[i] : Integer.MAX_VALUE;
+            int y = j < to ? (int) edges[j] : Integer.MAX_VALUE;
+            if (k > 0 && out[k - 1] == y && y != x) {
+                j++;   // repeated in the batch
+            } else if (x <= y) {
+                out[k++] = x;
+                i++;
+                if (x == y) j++;
+            } else {
+                out[k++] = y;
+                j++;
+            }
+        }
+        return k == row.length ? null : Arrays.copyOf(out, k);
+    }
+
+    /** Unmodifiable set over a sorted array of vertices. */
+    private final class Members extends AbstractSet<User> {
+        private final int[] vertices;
+
+        Members(int[] vertices) {
+            this.vertices = vertices;
+        }
+
+        @Override
+        public int size() {
+            return vertices.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof User)) return false;
+            int v = vertexOf((User) o, false);   // equal by id
+            return v >= 0 && Arrays.binarySearch(vertices, v) >= 0;
+        }
+
+        @Override
+        public Iterator<User> iterator() {
+            return new Iterator<User>() {
+                private int i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < vertices.length;
+                }
+
+                @Override
+                public User next() {
+                    if (i == vertices.length) throw new NoSuchElementException();
+                    return user(vertices[i++]);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package SocialNetwork;
+
+import java.util.Arrays;
+
+/**
+ * One sorted int row per vertex, the adjacency storage behind SocialGraph.
+ *
+ * Rows are in CSR form: one int[] of targets holding every row back to back,
+ * each sorted, and an int[] of offsets where row v starts. A CSR array cannot
+ * grow in place, so new entries go to a small sorted delta row per vertex,
+ * and removed ones are tombstoned in place (stored as ~target, which keeps
+ * the row's order). Once the delta rows hold more than 1/8 of the entries,
+ * or tombstones outnumber live entries, everything is merged into a fresh
+ * CSR array; the copying is amortized O(1) per change.
+ *
+ * Fields are package-private so SocialGraph's live views can walk a row
+ * without copying it. Not thread-safe.
+ */
+final class EdgeRows {
+
+    // CSR base: row v is targets[offsets[v] .. offsets[v + 1]) for v < baseUsers, sorted by ~t-decoded value.
+    int[] offsets = {0};
+    int[] targets = new int[0];
+    int baseUsers;
+    int dead;   // tombstones in targets
+
+    // Entries added since the last compaction; each row sorted.
+    int[][] delta = new int[16][];
+    int[] deltaSize = new int[16];
+    int deltaEdges;
+
+    int[] degree = new int[16];
+    int users;
+    long edges;
+    int modCount;   // changes with every add, remove and compaction
+
+    /** Adds an empty row for the next vertex. */
+    void addVertex() {
+        if (users == degree.length) {
+            int capacity = users * 2;
+            delta = Arrays.copyOf(delta, capacity);
+            deltaSize = Arrays.copyOf(deltaSize, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+        }
+        users++;
+    }
+
+    /** Adds t to v's row. Returns false if it was already there. */
+    boolean add(int v, int t) {
+        int i = findBase(v, t);
+        if (i >= 0) {
+            if (targets[i] >= 0) return false;
+            targets[i] = t;
+            dead--;
+        } else {
+            int[] row = delta[v];
+            int n = deltaSize[v];
+            int at = 0;
+            if (row == null) {
+                row = delta[v] = new int[4];
+            } else {
+                at = Arrays.binarySearch(row, 0, n, t);
+                if (at >= 0) return false;
+                at = -at - 1;
+                if (n == row.length) row = delta[v] = Arrays.copyOf(row, n * 2);
+            }
+            System.arraycopy(row, at, row, at + 1, n - at);
+            row[at] = t;
+            deltaSize[v] = n + 1;
+            deltaEdges++;
+        }
+        degree[v]++;
+        edges++;
+        modCount++;
+        if (deltaEdges > 64 && deltaEdges > (targets.length - dead) / 8) compact();
+        return true;
+    }
+
+    /** Removes t from v's row. Returns false if it was not there. */
+    boolean remove(int v, int t) {
+        int i = findBase(v, t);
+        if (i >= 0 && targets[i] >= 0) {
+            targets[i] = ~t;
+            dead++;
+        } else {
+            int n = deltaSize[v];
+            int at = n == 0 ? -1 : Arrays.binarySearch(delta[v], 0, n, t);
+            if (at < 0) return false;
+            System.arraycopy(delta[v], at + 1, delta[v], at, n - at - 1);
+            deltaSize[v] = n - 1;
+            deltaEdges--;
+        }
+        degree[v]--;
+        edges--;
+        modCount++;
+        if (dead > 1024 && dead > targets.length - dead) compact();
+        return true;
+    }
+
+    boolean contains(int v, int t) {
+        int i = findBase(v, t);
+        if (i >= 0) return targets[i] >= 0;
+        return deltaSize[v] > 0 && Arrays.binarySearch(delta[v], 0, deltaSize[v], t) >= 0;
+    }
+
+    /**
+     * Copies the entries of v's row in [from, to) into out, in ascending
+     * order, and returns how many. out must have room for degree[v] entries.
+     */
+    int copy(int v, int from, int to, int[] out) {
+        int i = 0, end = 0;
+        if (v < baseUsers) {
+            i = lowerBound(offsets[v], offsets[v + 1], from);
+            end = offsets[v + 1];
+        }
+        int[] row = delta[v];
+        int n = deltaSize[v];
+        int j = 0;
+        if (n > 0) {
+            j = Arrays.binarySearch(row, 0, n, from);
+            if (j < 0) j = -j - 1;
+        }
+        int k = 0;
+        while (true) {
+            while (i < end && targets[i] < 0) i++;
+            int x = i < end ? targets[i] : Integer.MAX_VALUE;
+            int y = j < n ? row[j] : Integer.MAX_VALUE;
+            int next = Math.min(x, y);
+            if (next >= to) return k;
+            out[k++] = next;
+            if (x < y) i++; else j++;
+        }
+    }
+
+    /** Rewrites the rows as one tombstone-free CSR array with no delta rows. */
+    void compact() {
+        int[] newOffsets = new int[users + 1];
+        int[] newTargets = new int[Math.toIntExact(edges)];
+        int k = 0;
+        for (int v = 0; v < users; v++) {
+            newOffsets[v] = k;
+            int i = v < baseUsers ? offsets[v] : 0, end = v < baseUsers ? offsets[v + 1] : 0;
+            int[] row = delta[v];
+            int j = 0, n = deltaSize[v];
+            // Both runs are sorted and disjoint; merge them, dropping tombstones.
+            while (i < end || j < n) {
+                if (i < end && targets[i] < 0) {
+                    i++;
+                } else if (j == n || (i < end && targets[i] < row[j])) {
+                    newTargets[k++] = targets[i++];
+                } else {
+                    newTargets[k++] = row[j++];
+                }
+            }
+            delta[v] = null;
+            deltaSize[v] = 0;
+        }
+        newOffsets[users] = k;
+        offsets = newOffsets;
+        targets = newTargets;
+        baseUsers = users;
+        dead = 0;
+        deltaEdges = 0;
+        modCount++;
+    }
+
+    /** Rows with every entry reversed: u is in row t of the result whenever t is in row u here. */
+    EdgeRows transpose() {
+        EdgeRows reversed = new EdgeRows();
+        int n = users;
+        int[] offsets = new int[n + 1];
+        int[] row = new int[16];
+        for (int u = 0; u < n; u++) {
+            if (row.length < degree[u]) row = new int[Math.max(degree[u], row.length * 2)];
+            for (int k = 0, m = copy(u, 0, Integer.MAX_VALUE, row); k < m; k++) offsets[row[k] + 1]++;
+        }
+        int[] degree = new int[Math.max(n, 16)];
+        for (int v = 0; v < n; v++) {
+            degree[v] = offsets[v + 1];
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] sources = new int[offsets[n]];
+        // Visiting sources in order leaves every reversed row sorted.
+        for (int u = 0; u < n; u++) {
+            for (int k = 0, m = copy(u, 0, Integer.MAX_VALUE, row); k < m; k++) sources[next[row[k]]++] = u;
+        }
+        reversed.offsets = offsets;
+        reversed.targets = sources;
+        reversed.baseUsers = n;
+        reversed.users = n;
+        reversed.delta = new int[degree.length][];
+        reversed.deltaSize = new int[degree.length];
+        reversed.degree = degree;
+        reversed.edges = edges;
+        return reversed;
+    }
+
+    // First position in targets[lo, hi) whose decoded value is >= t.
+    private int lowerBound(int lo, int hi, int t) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int x = targets[mid];
+            if (x < 0) x = ~x;
+            if (x < t) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // Position of t in v's CSR row, live or tombstoned, or -1.
+    private int findBase(int v, int t) {
+        if (v >= baseUsers) return -1;
+        int lo = offsets[v], hi = offsets[v + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int x = targets[mid];
+            if (x < 0) x = ~x;
+            if (x < t) lo = mid + 1;
+            else if (x > t) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package SocialNetwork;
+
+import java.util.Set;
+
+/**
+ * A store that holds users' friendships in place of each User's own HashSet.
+ * Users created by a store's addUser delegate their friend methods to it.
+ */
+interface FriendGraph {
+
+    /** Returns false if nothing changed. */
+    boolean addFriend(User user, User friend);
+
+    /** Returns false if friend was not a friend. */
+    boolean removeFriend(User user, User friend);
+
+    Set<User> getFriends(User user);
+
+    Set<User> getFriendsOfFriends(User user);
+}
@@ -0,0 +1,295 @@
+package SocialNetwork;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Friends-of-friends queries over a SocialGraph.
+ *
+ * A query reads each friend's sorted row once and counts, per candidate, how
+ * many of the user's friends it appears under: that count is the number of
+ * mutual friends. Counts live in two int arrays indexed by vertex and reused
+ * across queries; a slot belongs to the current query only if its stamp
+ * equals the query's epoch, so nothing is cleared between queries; a query
+ * allocates only the user's friend list, a row buffer and the result, never
+ * a hash set. Dense results are read off the stamps in vertex order instead
+ * of being sorted. The user and their direct
+ * friends are stamped first with a count of 0, which excludes them without
+ * any contains() lookups.
+ *
+ * For a user whose friends have many friends between them, the vertex range
+ * is cut into chunks counted in parallel. Rows are sorted, so each task reads
+ * only the part of every row that falls in its chunk, and tasks never write
+ * to the same slot.
+ *
+ * Not thread-safe, and the graph must not change during a query.
+ */
+class FriendsOfFriends {
+
+    // Friend-row entries a query must read before it is worth splitting.
+    private static final int PARALLEL_WORK = 1 << 16;
+
+    private final SocialGraph graph;
+    private final ForkJoinPool pool;
+    private int[] stamp = new int[0];
+    private int[] count = new int[0];
+    private int epoch;
+
+    FriendsOfFriends(SocialGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    FriendsOfFriends(SocialGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /** Same members as User.getFriendsOfFriends, as an unmodifiable set. */
+    Set<User> of(User user) {
+        return new Members(candidates(graph.vertexOf(user)));
+    }
+
+    /** Vertices of v's friends of friends, ascending. */
+    int[] candidates(int v) {
+        int[][] chunks = count(v);
+        int total = 0;
+        for (int[] chunk : chunks) total += chunk.length;
+        if (chunks.length == 1) return chunks[0];
+        int[] all = new int[total];
+        int k = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, all, k, chunk.length);
+            k += chunk.length;
+        }
+        return all;
+    }
+
+    /** Up to k friends of friends, most mutual friends first; ties go to the earlier-added user. */
+    List<Suggestion> top(User user, int k) {
+        if (k <= 0) return new ArrayList<>();
+        int[][] chunks = count(graph.vertexOf(user));
+        // Min-heap of the best k so far, keyed by (mutual count, then lower vertex).
+        long[] heap = new long[k];
+        int size = 0;
+        for (int[] chunk : chunks) {
+            for (int t : chunk) {
+                long key = (long) count[t] << 32 | (Integer.MAX_VALUE - t);
+                if (size < k) {
+                    heap[size] = key;
+                    siftUp(heap, size++);
+                } else if (key > heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, size);
+                }
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        List<Suggestion> result = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            int t = Integer.MAX_VALUE - (int) heap[i];
+            result.add(new Suggestion(graph.user(t), (int) (heap[i] >>> 32)));
+        }
+        return result;
+    }
+
+    /** Number of friends a and b have in common, by merging their sorted rows. */
+    int mutualFriends(User a, User b) {
+        int va = graph.vertexOf(a), vb = graph.vertexOf(b);
+        int[] ra = new int[graph.degree(va)], rb = new int[graph.degree(vb)];
+        int na = graph.friends(va, 0, Integer.MAX_VALUE, ra), nb = graph.friends(vb, 0, Integer.MAX_VALUE, rb);
+        int i = 0, j = 0, common = 0;
+        while (i < na && j < nb) {
+            if (ra[i] < rb[j]) i++;
+            else if (ra[i] > rb[j]) j++;
+            else { common++; i++; j++; }
+        }
+        return common;
+    }
+
+    // Counts mutual friends for every candidate of v; returns the candidates per chunk, ascending.
+    private int[][] count(int v) {
+        int n = graph.userCount();
+        if (stamp.length < n) {
+            stamp = new int[n];
+            count = new int[n];
+            epoch = 0;
+        }
+        if (++epoch == 0) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        int[] friends = new int[graph.degree(v)];
+        graph.friends(v, 0, Integer.MAX_VALUE, friends);
+        long work = 0;
+        int widest = friends.length;
+        for (int f : friends) {
+            work += graph.degree(f);
+            widest = Math.max(widest, graph.degree(f));
+        }
+        int parallelism = pool.getParallelism();
+        if (work < PARALLEL_WORK || parallelism <= 1) {
+            return new int[][] {countRange(v, friends, 0, n, new int[widest])};
+        }
+        int[][] chunks = new int[parallelism * 4][];
+        pool.invoke(new Split(v, friends, widest, n, chunks, 0, chunks.length));
+        return chunks;
+    }
+
+    // Counts the candidates of v whose vertex is in [from, to). Tasks on disjoint ranges may run at once.
+    private int[] countRange(int v, int[] friends, int from, int to, int[] row) {
+        int e = epoch;
+        int[] stamp = this.stamp, count = this.count;
+        if (v >= from && v < to) {
+            stamp[v] = e;
+            count[v] = 0;
+        }
+        for (int i = 0, m = graph.friends(v, from, to, row); i < m; i++) {
+            stamp[row[i]] = e;
+            count[row[i]] = 0;
+        }
+        int[] found = new int[16];
+        int size = 0;
+        for (int f : friends) {
+            for (int i = 0, m = graph.friends(f, from, to, row); i < m; i++) {
+                int t = row[i];
+                if (stamp[t] != e) {
+                    stamp[t] = e;
+                    count[t] = 1;
+                    if (size == found.length) found = Arrays.copyOf(found, size * 2);
+                    found[size++] = t;
+                } else if (count[t] > 0) {
+                    count[t]++;
+                }
+            }
+        }
+        if (size < (to - from) / 16) {
+            found = Arrays.copyOf(found, size);
+            Arrays.sort(found);
+            return found;
+        }
+        // Dense: reading the stamps in order is cheaper than sorting, and already ascending.
+        int k = 0;
+        for (int t = from; t < to; t++) {
+            if (stamp[t] == e && count[t] > 0) found[k++] = t;
+        }
+        return Arrays.copyOf(found, k);
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) return;
+            long tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i, left = 2 * i + 1, right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) smallest = left;
+            if (right < size && heap[right] < heap[smallest]) smallest = right;
+            if (smallest == i) return;
+            long tmp = heap[smallest];
+            heap[smallest] = heap[i];
+            heap[i] = tmp;
+            i = smallest;
+        }
+    }
+
+    /** A suggested friend and how many friends they share with the user. */
+    static final class Suggestion {
+        final User user;
+        final int mutualFriends;
+
+        Suggestion(User user, int mutualFriends) {
+            this.user = user;
+            this.mutualFriends = mutualFriends;
+        }
+
+        @Override
+        public String toString() {
+            return user + " (" + mutualFriends + " mutual)";
+        }
+    }
+
+    // Counts chunks [first, last) of the vertex range, halving until one chunk per task.
+    @SuppressWarnings("serial")   // fork-join tasks are never serialized
+    private final class Split extends RecursiveAction {
+        private final int v, widest, users;
+        private final int[] friends;
+        private final int[][] chunks;
+        private final int first, last;
+
+        Split(int v, int[] friends, int widest, int users, int[][] chunks, int first, int last) {
+            this.v = v;
+            this.friends = friends;
+            this.widest = widest;
+            this.users = users;
+            this.chunks = chunks;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                long from = (long) users * first / chunks.length, to = (long) users * last / chunks.length;
+                chunks[first] = countRange(v, friends, (int) from, (int) to, new int[widest]);
+                return;
+            }
+            int mid = (first + last) >>> 1;
+            invokeAll(new Split(v, friends, widest, users, chunks, first, mid),
+                    new Split(v, friends, widest, users, chunks, mid, last));
+        }
+    }
+
+    /** Unmodifiable set over a sorted array of vertices. */
+    private final class Members extends AbstractSet<User> {
+        private final int[] vertices;
+
+        Members(int[] vertices) {
+            this.vertices = vertices;
+        }
+
+        @Override
+        public int size() {
+            return vertices.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof User)) return false;
+            int t = graph.vertexOf((User) o, false);
+            return t >= 0 && Arrays.binarySearch(vertices, t) >= 0;
+        }
+
+        @Override
+        public Iterator<User> iterator() {
+            return new Iterator<User>() {
+                private int i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < vertices.length;
+                }
+
+                @Override
+                public User next() {
+                    if (i == vertices.length) throw new NoSuchElementException();
+                    return graph.user(vertices[i++]);
+                }
+            };
+        }
+    }
+}
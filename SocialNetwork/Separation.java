@@ -0,0 +1,171 @@
+package SocialNetwork;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Degrees of separation between users of a SocialGraph.
+ *
+ * Friendship is one-directional, so a path from a to b follows friend rows
+ * out of a and, from b's side, rows into b. The graph builds the incoming
+ * rows on the first query and then keeps them current as friendships change,
+ * so queries between changes cost only the search.
+ *
+ * Queries run a breadth-first search from both ends at once, always growing
+ * the side whose frontier is smaller by one full level, and stop at the
+ * level where the two sides first meet. For a graph with branching factor
+ * d and answer length L this visits about 2 * d^(L/2) users instead of d^L.
+ * Searches give up past maxDepth hops (six by default).
+ *
+ * Visited marks, parents, distances and both queues are int arrays indexed
+ * by vertex and reused for every query; a mark counts only if it equals the
+ * query's epoch, so a query clears nothing and distance() allocates nothing.
+ *
+ * Not thread-safe, and the graph must not change during a query.
+ */
+class Separation {
+
+    static final int DEFAULT_MAX_DEPTH = 6;
+
+    private final SocialGraph graph;
+    private final int maxDepth;
+
+    private int[] markF = new int[0], markB = new int[0];
+    private int[] parentF = new int[0], parentB = new int[0];
+    private int[] distF = new int[0], distB = new int[0];
+    private int[] queueF = new int[0], queueB = new int[0];
+    private int[] row = new int[16];
+    private int[] inRow = new int[16];
+    private int epoch;
+    private int meet;   // where the last search's two sides joined
+
+    Separation(SocialGraph graph) {
+        this(graph, DEFAULT_MAX_DEPTH);
+    }
+
+    Separation(SocialGraph graph, int maxDepth) {
+        this.graph = graph;
+        this.maxDepth = maxDepth;
+    }
+
+    /** Fewest friendship hops from a to b, or -1 if b is not reachable within maxDepth. */
+    int distance(User a, User b) {
+        return search(graph.vertexOf(a), graph.vertexOf(b));
+    }
+
+    /** Users on a shortest path from a to b, both included; empty if none within maxDepth. */
+    List<User> shortestPath(User a, User b) {
+        int va = graph.vertexOf(a), vb = graph.vertexOf(b);
+        int d = search(va, vb);
+        List<User> path = new ArrayList<>(Math.max(d + 1, 0));
+        if (d < 0) return path;
+        for (int v = meet; v != -1; v = parentF[v]) path.add(graph.user(v));
+        Collections.reverse(path);
+        for (int v = parentB[meet]; v != -1; v = parentB[v]) path.add(graph.user(v));
+        return path;
+    }
+
+    private int search(int a, int b) {
+        EdgeRows in = prepare();
+        int e = epoch;
+        markF[a] = e;
+        parentF[a] = -1;
+        distF[a] = 0;
+        markB[b] = e;
+        parentB[b] = -1;
+        distB[b] = 0;
+        queueF[0] = a;
+        queueB[0] = b;
+        meet = a;
+        if (a == b) return 0;
+        // Each queue holds the visited users in BFS order; [start, end) is the current level.
+        int startF = 0, endF = 1, startB = 0, endB = 1;
+        int depthF = 0, depthB = 0;
+        while (depthF + depthB < maxDepth && startF < endF && startB < endB) {
+            int best = Integer.MAX_VALUE;
+            if (endF - startF <= endB - startB) {
+                int tail = endF;
+                for (int i = startF; i < endF; i++) {
+                    int u = queueF[i];
+                    for (int k = 0, m = outgoing(u); k < m; k++) {
+                        int w = row[k];
+                        if (markF[w] == e) continue;
+                        markF[w] = e;
+                        parentF[w] = u;
+                        distF[w] = depthF + 1;
+                        queueF[tail++] = w;
+                        if (markB[w] == e && depthF + 1 + distB[w] < best) {
+                            best = depthF + 1 + distB[w];
+                            meet = w;
+                        }
+                    }
+                }
+                startF = endF;
+                endF = tail;
+                depthF++;
+            } else {
+                int tail = endB;
+                for (int i = startB; i < endB; i++) {
+                    int u = queueB[i];
+                    for (int k = 0, m = incoming(in, u); k < m; k++) {
+                        int w = inRow[k];
+                        if (markB[w] == e) continue;
+                        markB[w] = e;
+                        parentB[w] = u;
+                        distB[w] = depthB + 1;
+                        queueB[tail++] = w;
+                        if (markF[w] == e && distF[w] + depthB + 1 < best) {
+                            best = distF[w] + depthB + 1;
+                            meet = w;
+                        }
+                    }
+                }
+                startB = endB;
+                endB = tail;
+                depthB++;
+            }
+            // The first level where the sides touch holds a shortest path; a longer one could only come later.
+            if (best != Integer.MAX_VALUE) return best;
+        }
+        return -1;
+    }
+
+    // Copies u's friends into row and returns how many.
+    private int outgoing(int u) {
+        int degree = graph.degree(u);
+        if (row.length < degree) row = new int[Math.max(degree, row.length * 2)];
+        return graph.friends(u, 0, Integer.MAX_VALUE, row);
+    }
+
+    // Copies the users who have u as a friend into inRow and returns how many.
+    private int incoming(EdgeRows in, int u) {
+        int degree = in.degree[u];
+        if (inRow.length < degree) inRow = new int[Math.max(degree, inRow.length * 2)];
+        return in.copy(u, 0, Integer.MAX_VALUE, inRow);
+    }
+
+    // Sizes the scratch arrays, starts a new epoch and returns the graph's incoming rows.
+    private EdgeRows prepare() {
+        int n = graph.userCount();
+        if (markF.length < n) {
+            int capacity = Math.max(n, markF.length * 2);
+            markF = new int[capacity];
+            markB = new int[capacity];
+            parentF = new int[capacity];
+            parentB = new int[capacity];
+            distF = new int[capacity];
+            distB = new int[capacity];
+            queueF = new int[capacity];
+            queueB = new int[capacity];
+            epoch = 0;
+        }
+        if (++epoch == 0) {
+            Arrays.fill(markF, 0);
+            Arrays.fill(markB, 0);
+            epoch = 1;
+        }
+        return graph.incoming();
+    }
+}
@@ -0,0 +1,220 @@
+package SocialNetwork;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact store for a large friendship graph.
+ *
+ * Each user added with addUser gets a dense int vertex (0, 1, 2, ...), and
+ * friendships are kept as int vertex numbers rather than references in a
+ * HashSet, in EdgeRows: sorted rows in CSR form with small delta rows and
+ * tombstones absorbing changes between compactions. That is 4 bytes per
+ * friendship, against roughly 40 for a HashSet entry and its slot in the
+ * table.
+ *
+ * Rows into each user are kept too once something asks for them (degrees of
+ * separation searches from both ends): the first call to incoming() builds
+ * them from the outgoing rows, and from then on every add and remove updates
+ * both directions, doubling the per-friendship cost.
+ *
+ * Users created here delegate addFriend, removeFriend and getFriends to the
+ * graph with unchanged meaning: friendship is one-directional, adding a
+ * friend twice or adding oneself does nothing, and getFriends is a live,
+ * unmodifiable view. Its iteration order is by vertex. Friends must be users
+ * of this graph: one created elsewhere is matched by id, and addFriend throws
+ * IllegalArgumentException if the graph has no user with that id.
+ *
+ * Not thread-safe, like User itself.
+ */
+class SocialGraph implements FriendGraph {
+
+    private final Map<String, Integer> vertices = new HashMap<>();
+    private User[] users = new User[16];
+    private int userCount;
+
+    private final EdgeRows out = new EdgeRows();
+    private EdgeRows in;   // rows into each user, once incoming() has been called
+    private FriendsOfFriends friendsOfFriends;
+    private Separation separation;
+
+    /** Creates a user whose friendships are stored in this graph. Ids must be unique. */
+    User addUser(String id, String name) {
+        if (vertices.containsKey(id)) throw new IllegalArgumentException("Duplicate user id " + id);
+        int v = userCount++;
+        if (v == users.length) {
+            int capacity = v * 2;
+            users = Arrays.copyOf(users, capacity);
+        }
+        out.addVertex();
+        if (in != null) in.addVertex();
+        User user = new User(this, v, id, name);
+        users[v] = user;
+        vertices.put(id, v);
+        return user;
+    }
+
+    /** The user with this id, or null. */
+    User getUser(String id) {
+        Integer v = vertices.get(id);
+        return v == null ? null : users[v];
+    }
+
+    int userCount() {
+        return userCount;
+    }
+
+    long edgeCount() {
+        return out.edges;
+    }
+
+    User user(int v) {
+        return users[v];
+    }
+
+    int degree(int v) {
+        return out.degree[v];
+    }
+
+    /** The friends-of-friends engine for this graph, created on first use. */
+    FriendsOfFriends friendsOfFriends() {
+        if (friendsOfFriends == null) friendsOfFriends = new FriendsOfFriends(this);
+        return friendsOfFriends;
+    }
+
+    /** The degrees-of-separation engine for this graph, created on first use. */
+    Separation separation() {
+        if (separation == null) separation = new Separation(this);
+        return separation;
+    }
+
+    /**
+     * Rows into each user: row v lists, in ascending order, the users who have
+     * v as a friend. Built on the first call and kept current from then on.
+     */
+    EdgeRows incoming() {
+        if (in == null) in = out.transpose();
+        return in;
+    }
+
+    /**
+     * Copies v's friends with vertex numbers in [from, to) into out, in ascending
+     * order, and returns how many. out must have room for degree(v) entries.
+     */
+    int friends(int v, int from, int to, int[] row) {
+        return out.copy(v, from, to, row);
+    }
+
+    /**
+     * Adds friend to user's friends. A friend from elsewhere is matched by id,
+     * as removeFriend and getFriends().contains do; one with no user of that id
+     * here cannot be stored, so it is rejected like a duplicate id in addUser.
+     */
+    @Override
+    public boolean addFriend(User user, User friend) {
+        int v = vertexOf(user);
+        if (friend == null || friend.equals(user)) return false;
+        int t = vertexOf(friend, false);
+        if (t < 0) throw new IllegalArgumentException("No user with id " + friend.getId() + " in this graph");
+        if (!out.add(v, t)) return false;
+        if (in != null) in.add(t, v);
+        return true;
+    }
+
+    @Override
+    public boolean removeFriend(User user, User friend) {
+        int v = vertexOf(user);
+        int t = vertexOf(friend, false);
+        if (t < 0) return false;
+        if (!out.remove(v, t)) return false;
+        if (in != null) in.remove(t, v);
+        return true;
+    }
+
+    @Override
+    public Set<User> getFriends(User user) {
+        return new Friends(vertexOf(user));
+    }
+
+    @Override
+    public Set<User> getFriendsOfFriends(User user) {
+        return friendsOfFriends().of(user);
+    }
+
+    boolean hasFriend(int v, int t) {
+        return out.contains(v, t);
+    }
+
+    /** Rewrites the rows, both directions if kept, as tombstone-free CSR arrays with no delta rows. */
+    void compact() {
+        out.compact();
+        if (in != null) in.compact();
+    }
+
+    int vertexOf(User user) {
+        return vertexOf(user, true);
+    }
+
+    // The user's vertex here. A user from elsewhere is an error if required, else matched by id (-1 if none).
+    int vertexOf(User user, boolean required) {
+        if (user != null && user.graph == this) return user.vertex;
+        if (required) throw new IllegalArgumentException(user + " is not a user of this graph");
+        Integer v = user == null ? null : vertices.get(user.getId());
+        return v == null ? -1 : v;
+    }
+
+    /** Live, unmodifiable view of one user's friends, in vertex order. */
+    private final class Friends extends AbstractSet<User> {
+        private final int v;
+
+        Friends(int v) {
+            this.v = v;
+        }
+
+        @Override
+        public int size() {
+            return out.degree[v];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof User)) return false;
+            User u = (User) o;
+            // A user from elsewhere is matched by id, as equals would in a HashSet.
+            int t = vertexOf(u, false);
+            return t >= 0 && hasFriend(v, t);
+        }
+
+        @Override
+        public Iterator<User> iterator() {
+            return new Iterator<User>() {
+                private final int expected = out.modCount;
+                private final int[] targets = out.targets;
+                private int i = v < out.baseUsers ? out.offsets[v] : 0;
+                private final int end = v < out.baseUsers ? out.offsets[v + 1] : 0;
+                private int j;
+
+                @Override
+                public boolean hasNext() {
+                    if (out.modCount != expected) throw new ConcurrentModificationException();
+                    while (i < end && targets[i] < 0) i++;
+                    return i < end || j < out.deltaSize[v];
+                }
+
+                @Override
+                public User next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    int[] delta = out.delta[v];
+                    if (j == out.deltaSize[v] || (i < end && targets[i] < delta[j])) return users[targets[i++]];
+                    return users[delta[j++]];
+                }
+            };
+        }
+    }
+}
@@ -8,20 +8,39 @@ import java.util.Set;
 public class User {
     private final String id;       // Unique identifier (could be an email, username, etc.)
     private final String name;     
-    private final Set<User> friends; // Direct friends of this user
+    private final Set<User> friends; // Direct friends of this user; null when stored in a graph
+    final FriendGraph graph;         // Set for users created by a graph's addUser
+    final int vertex;
 
     public User(String id, String name) {
         this.id = id;
         this.name = name;
         this.friends = new HashSet<>();
+        this.graph = null;
+        this.vertex = -1;
+    }
+
+    // Used by the graphs' addUser: friendships live in the graph instead.
+    User(FriendGraph graph, int vertex, String id, String name) {
+        this.id = id;
+        this.name = name;
+        this.friends = null;
+        this.graph = graph;
+        this.vertex = vertex;
     }
     
     // Accessor methods
     public String getId() { return id; }
     public String getName() { return name; }
     
-    // Adds a friend (bidirectional friendship can be established here if needed)
+    // Adds a friend (bidirectional friendship can be established here if needed).
+    // For a user created by a graph's addUser, the friend must be a user of that graph
+    // (one from elsewhere is matched by id); otherwise IllegalArgumentException is thrown.
     public void addFriend(User friend) {
+        if (graph != null) {
+            graph.addFriend(this, friend);
+            return;
+        }
         if (friend != null && !friend.equals(this)) {
             friends.add(friend);
             // Uncomment the following line if you want mutual friendship automatically:
@@ -31,6 +50,10 @@ public class User {
     
     // Removes a friend
     public void removeFriend(User friend) {
+        if (graph != null) {
+            graph.removeFriend(this, friend);
+            return;
+        }
         friends.remove(friend);
         // Uncomment the following line if mutual friendship should be removed:
         // friend.friends.remove(this);
@@ -38,11 +61,13 @@ public class User {
     
     // Returns an unmodifiable view of direct friends
     public Set<User> getFriends() {
+        if (graph != null) return graph.getFriends(this);
         return Collections.unmodifiableSet(friends);
     }
     
-    // Returns friends of friends (excluding direct friends and self)
+    // Returns friends of friends (excluding direct friends and self); unmodifiable for graph users
     public Set<User> getFriendsOfFriends() {
+        if (graph != null) return graph.getFriendsOfFriends(this);
         Set<User> result = new HashSet<>();
         for (User friend : friends) {
             for (User fof : friend.getFriends()) {
@@ -65,7 +90,7 @@ public class User {
     
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Objects.hashCode(id);
     }
     
     // For easier debugging/printing
@@ -97,6 +122,27 @@ public class User {
         Set<User> friendsOfFriends = alice.getFriendsOfFriends();
         System.out.println("Friends of Friends for " + alice.getName() + ": " + friendsOfFriends);
         // Expected output (order may vary): Friends of Friends for Alice: [Dave, Eve]
+
+        // The same friendships in a compact graph store.
+        SocialGraph graph = new SocialGraph();
+        User a = graph.addUser("1", "Alice"), b = graph.addUser("2", "Bob"), c = graph.addUser("3", "Charlie");
+        User d = graph.addUser("4", "Dave"), e = graph.addUser("5", "Eve");
+        a.addFriend(b);
+        a.addFriend(c);
+        b.addFriend(d);
+        b.addFriend(e);
+        c.addFriend(e);
+        System.out.println("From the graph store: " + a.getFriendsOfFriends()
+                + " (" + graph.edgeCount() + " friendships)");
+        System.out.println("Suggestions for Alice: " + graph.friendsOfFriends().top(a, 2));
+        System.out.println("Alice to Eve: " + graph.separation().shortestPath(a, e)
+                + ", " + graph.separation().distance(a, e) + " hops");
+
+        // In the concurrent store friendship is mutual: one call updates both users atomically.
+        ConcurrentSocialGraph shared = new ConcurrentSocialGraph();
+        User frank = shared.addUser("6", "Frank"), grace = shared.addUser("7", "Grace");
+        frank.addFriend(grace);
+        System.out.println("Grace's friends: " + grace.getFriends());
     }
 }
 
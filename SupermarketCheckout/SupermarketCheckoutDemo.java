@@ -1,3 +1,5 @@
+package SupermarketCheckout;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -0,0 +1,6 @@
+package UnixFileFinder;
+
+// Constraint Interface
+interface Constraint {
+    boolean isSatisfied(File file);
+}
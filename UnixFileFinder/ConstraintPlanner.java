@@ -0,0 +1,155 @@
+package UnixFileFinder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a list of constraints into one fused Constraint for the search loop.
+ *
+ * The built-in constraints are merged first: every NameConstraint must name
+ * the same file, size ranges are intersected, and of several extensions only
+ * the longest needs checking if the others are suffixes of it. A combination
+ * that can never match (two names, an empty range, ".txt" and ".mp4") becomes
+ * a plan that rejects without looking at the file. The surviving checks are
+ * then ordered by how many files each is expected to reject per unit of cost,
+ * so cheap, selective checks run first.
+ *
+ * The result is a single final class, so the search's call site stays
+ * monomorphic and the JIT can inline the whole check. Constraint types the
+ * planner does not know are kept, in their original order, after the fused
+ * checks.
+ */
+class ConstraintPlanner {
+
+    private static final int NAME = 0, SIZE = 1, EXTENSION = 2;
+
+    // Rough per-file cost and pass rate of each check when nothing is known about the tree.
+    private static final double[] COST = {2, 1, 3};
+    private static final double NAME_PASS = 0.01;
+    private static final double EXTENSION_PASS = 0.2;
+
+    static Plan compile(List<Constraint> constraints) {
+        String name = null;
+        String extension = null;
+        long minSize = Long.MIN_VALUE, maxSize = Long.MAX_VALUE;
+        boolean sized = false;
+        List<Constraint> rest = new ArrayList<>();
+        for (Constraint c : constraints) {
+            if (c instanceof NameConstraint) {
+                String n = ((NameConstraint) c).name;
+                if (name != null && !name.equals(n)) return Plan.NEVER;
+                name = n;
+            } else if (c instanceof SizeConstraint) {
+                SizeConstraint s = (SizeConstraint) c;
+                minSize = Math.max(minSize, s.minSize);
+                maxSize = Math.min(maxSize, s.maxSize);
+                sized = true;
+            } else if (c instanceof ExtensionConstraint) {
+                String e = ((ExtensionConstraint) c).extension;
+                if (extension == null || e.endsWith(extension)) extension = e;
+                else if (!extension.endsWith(e)) return Plan.NEVER;
+            } else {
+                rest.add(c);
+            }
+        }
+        if (sized && minSize > maxSize) return Plan.NEVER;
+        if (name != null && extension != null) {
+            // The name decides the extension check up front.
+            if (!name.endsWith(extension)) return Plan.NEVER;
+            extension = null;
+        }
+        if (minSize == Long.MIN_VALUE && maxSize == Long.MAX_VALUE) sized = false;
+
+        List<Integer> checks = new ArrayList<>(3);
+        double[] pass = new double[3];
+        if (name != null) { checks.add(NAME); pass[NAME] = NAME_PASS; }
+        if (sized) { checks.add(SIZE); pass[SIZE] = sizePass(minSize, maxSize); }
+        if (extension != null) { checks.add(EXTENSION); pass[EXTENSION] = EXTENSION_PASS; }
+        // Highest rejection rate per unit of cost first.
+        checks.sort((a, b) -> Double.compare((1 - pass[b]) / COST[b], (1 - pass[a]) / COST[a]));
+        int[] order = new int[checks.size()];
+        for (int i = 0; i < order.length; i++) order[i] = checks.get(i);
+        return new Plan(order, name, minSize, maxSize, extension, rest.toArray(new Constraint[0]));
+    }
+
+    // Guess from the bounds alone: an open-ended range keeps more files than a closed one.
+    private static double sizePass(long minSize, long maxSize) {
+        boolean lower = minSize > 0, upper = maxSize < Long.MAX_VALUE;
+        if (lower && upper) return 0.3;
+        return 0.5;
+    }
+
+    /** A compiled constraint list. isSatisfied gives the same answer as checking each original constraint. */
+    static final class Plan implements Constraint {
+        static final Plan NEVER = new Plan(null, null, 0, 0, null, new Constraint[0]);
+
+        private final int[] order;   // null = matches nothing
+        private final String name;
+        private final long minSize, maxSize;
+        private final String extension;
+        private final Constraint[] rest;
+
+        private Plan(int[] order, String name, long minSize, long maxSize, String extension, Constraint[] rest) {
+            this.order = order;
+            this.name = name;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.extension = extension;
+            this.rest = rest;
+        }
+
+        // Merged built-in checks, for FileIndex to pick an index by. Null / full range if absent.
+        String name() { return name; }
+        String extension() { return extension; }
+        long minSize() { return minSize; }
+        long maxSize() { return maxSize; }
+
+        /**
+         * The checks that need only the file's name. False means isSatisfied is false
+         * for any file with this name, so its attributes need not be read.
+         */
+        boolean matchesName(String fileName) {
+            if (order == null) return false;
+            if (name != null && !fileName.equals(name)) return false;
+            return extension == null || fileName.endsWith(extension);
+        }
+
+        public boolean isSatisfied(File file) {
+            if (order == null) return false;
+            for (int check : order) {
+                switch (check) {
+                    case NAME:
+                        if (!file.name.equals(name)) return false;
+                        break;
+                    case SIZE:
+                        if (file.size < minSize || file.size > maxSize) return false;
+                        break;
+                    default:
+                        if (!file.name.endsWith(extension)) return false;
+                }
+            }
+            for (Constraint c : rest) {
+                if (!c.isSatisfied(file)) return false;
+            }
+            return true;
+        }
+
+        /** The checks in evaluation order, e.g. "size[0..500] -> extension(.mp4)". */
+        @Override
+        public String toString() {
+            if (order == null) return "never";
+            StringBuilder sb = new StringBuilder();
+            for (int check : order) {
+                if (sb.length() > 0) sb.append(" -> ");
+                if (check == NAME) sb.append("name(").append(name).append(')');
+                else if (check == SIZE) sb.append("size[").append(minSize).append("..").append(maxSize).append(']');
+                else sb.append("extension(").append(extension).append(')');
+            }
+            for (Constraint c : rest) {
+                if (sb.length() > 0) sb.append(" -> ");
+                sb.append(c.getClass().getSimpleName());
+            }
+            return sb.length() == 0 ? "any" : sb.toString();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package UnixFileFinder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a Directory, which can have children nodes
+class Directory extends FileNode {
+    List<FileNode> children;
+    FileIndex index;   // set on every directory under a root passed to FileIndex.attach
+    private int nextChildSeq;
+    
+    Directory(String name) {
+        super(name, true);
+        children = new ArrayList<>();
+    }
+    
+    void add(FileNode node) {
+        node.parent = this;
+        node.childSeq = nextChildSeq++;
+        children.add(node);
+        if (index != null) index.added(node);
+    }
+
+    void remove(FileNode node) {
+        if (children.remove(node) && index != null) index.removed(node);
+    }
+}
@@ -0,0 +1,179 @@
+package UnixFileFinder;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs the same constraints against a real directory tree.
+ *
+ * Each directory is read with its own DirectoryStream on a small thread pool,
+ * so sibling directories are listed in parallel; subdirectories found are
+ * submitted as new reads. Matches are handed over through a bounded queue and
+ * come back as a lazy Stream<Path>: the first results are available while the
+ * walk is still running, and a slow consumer holds the readers back instead
+ * of letting results pile up. Closing the stream stops the walk.
+ *
+ * Each entry costs one lstat (readAttributes with NOFOLLOW_LINKS), which gives
+ * both its type and its size; Java exposes no cheaper way to tell a directory
+ * from a file. The name and extension checks run before a File view is built
+ * for the full plan, so only files whose names pass reach the size checks and
+ * any custom constraints. Sizes are longs, so files over 2 GB compare
+ * correctly. Symbolic links are not followed, and directories that cannot be
+ * read are skipped, as find does after reporting them. Match order is
+ * unspecified.
+ */
+class DiskSearch {
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final Path END = Path.of("");   // compared by identity
+
+    /** Use with try-with-resources so an abandoned stream stops its readers. */
+    static Stream<Path> search(Path root, List<Constraint> constraints, int threads) {
+        ConstraintPlanner.Plan plan = ConstraintPlanner.compile(constraints);
+        if (plan == ConstraintPlanner.Plan.NEVER) return Stream.empty();
+        Walk walk = new Walk(plan, threads);
+        walk.start(root);
+        Spliterator<Path> results = Spliterators.spliteratorUnknownSize(walk,
+                Spliterator.NONNULL | Spliterator.DISTINCT);
+        return StreamSupport.stream(results, false).onClose(walk::cancel);
+    }
+
+    private static final class Walk implements Iterator<Path> {
+        private final ConstraintPlanner.Plan plan;
+        private final BlockingQueue<Path> results = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicInteger pending = new AtomicInteger();   // directories submitted but not finished
+        private final ExecutorService readers;
+        private volatile boolean cancelled;
+        private Path next;
+        private boolean done;
+
+        Walk(ConstraintPlanner.Plan plan, int threads) {
+            this.plan = plan;
+            this.readers = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "disk-search");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        void start(Path root) {
+            pending.incrementAndGet();
+            readers.execute(() -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(root, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        pending.incrementAndGet();
+                        readers.execute(() -> read(root));
+                    } else {
+                        check(root, attrs);
+                    }
+                } catch (IOException e) {
+                    // Missing or unreadable root: no matches.
+                } finally {
+                    finished();
+                }
+            });
+        }
+
+        private void read(Path dir) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    if (cancelled) return;
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;   // removed while we were listing
+                    }
+                    if (attrs.isDirectory()) {
+                        pending.incrementAndGet();
+                        readers.execute(() -> read(entry));
+                    } else if (!check(entry, attrs)) {
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Unreadable directory, or the pool was shut down by cancel(): skip it.
+            } finally {
+                finished();
+            }
+        }
+
+        // Returns false if the walk was cancelled while waiting for room in the queue.
+        private boolean check(Path path, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile()) return true;
+            String name = path.getFileName().toString();
+            if (!plan.matchesName(name) || !plan.isSatisfied(new File(name, attrs.size()))) return true;
+            return offer(path);
+        }
+
+        private boolean offer(Path path) {
+            try {
+                while (!results.offer(path, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) return false;
+                }
+                return true;
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+
+        private void finished() {
+            if (pending.decrementAndGet() == 0) {
+                readers.shutdown();
+                offer(END);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            readers.shutdownNow();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (done) return false;
+            try {
+                Path p = results.take();
+                if (p == END) {
+                    done = true;
+                    return false;
+                }
+                next = p;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                done = true;
+                return false;
+            }
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Path p = next;
+            next = null;
+            return p;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package UnixFileFinder;
+
+class ExtensionConstraint implements Constraint {
+    String extension;
+    
+    ExtensionConstraint(String extension) {
+        this.extension = extension;
+    }
+    
+    public boolean isSatisfied(File file) {
+        return file.name.endsWith(extension);
+    }
+}
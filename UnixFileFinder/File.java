@@ -0,0 +1,12 @@
+package UnixFileFinder;
+
+// Represents a File, which has a size
+class File extends FileNode {
+    long size;   // long: real files can exceed 2 GB
+    int indexSeq = -1;   // position in its FileIndex's postings, or -1 if not indexed
+    
+    File(String name, long size) {
+        super(name, false);
+        this.size = size;
+    }
+}
@@ -0,0 +1,251 @@
+package UnixFileFinder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary indexes over every file under one root directory.
+ *
+ * Attached with FileIndex.attach(root); from then on Directory.add and
+ * Directory.remove keep it current, including for whole subtrees. Removed
+ * files are tombstoned (indexSeq = -1) and skipped by searches; once they
+ * outnumber the live ones the index is rebuilt from the tree. Three indexes:
+ *  - name: exact file name to files;
+ *  - extension: the part from the last '.' (".mp4") to files;
+ *  - size: files sorted by size for range queries, as a sorted run plus a
+ *    small unsorted tail that is merged in once it grows past 1/8 of the run.
+ *
+ * A search against the root takes the fused Plan, asks each index that
+ * applies how many candidates it would return, reads only the smallest of
+ * those candidate sets and checks each candidate against the full plan. The
+ * cost is the size of the most selective index's answer, not the tree.
+ * Matches come back in Search.search's breadth-first order, which is by
+ * depth and then by the add order of each ancestor among its siblings (the
+ * childSeq Directory.add assigns). Only the matches are sorted, each keyed by
+ * its path from the root, so adding files never makes a search walk the tree.
+ *
+ * Not thread-safe, like the tree itself.
+ */
+class FileIndex {
+
+    private final Directory root;
+    private int count;
+    private int dead;   // tombstoned entries still in the postings
+    private final Map<String, List<File>> byName = new HashMap<>();
+    private final Map<String, List<File>> byExtension = new HashMap<>();
+    private long[] sortedSizes = new long[0];
+    private File[] sortedFiles = new File[0];
+    private File[] tailFiles = new File[64];
+    private int tail;
+
+    private FileIndex(Directory root) {
+        this.root = root;
+    }
+
+    /** Indexes everything under root and keeps the index current as nodes are added. */
+    static FileIndex attach(Directory root) {
+        if (root.index != null) {
+            if (root.index.root == root) return root.index;
+            throw new IllegalStateException(root.getPath() + " is already inside an indexed tree");
+        }
+        FileIndex index = new FileIndex(root);
+        index.added(root);
+        return index;
+    }
+
+    /** The index answering searches from root, or null if root is not an indexed root. */
+    static FileIndex of(FileNode root) {
+        if (!(root instanceof Directory)) return null;
+        FileIndex index = ((Directory) root).index;
+        return index != null && index.root == root ? index : null;
+    }
+
+    // Called by Directory.add, and by attach for the root: indexes node and everything under it.
+    void added(FileNode node) {
+        ArrayDeque<FileNode> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            FileNode n = queue.poll();
+            if (n instanceof File) {
+                index((File) n);
+            } else if (n instanceof Directory) {
+                Directory d = (Directory) n;
+                if (d.index != null && d.index != this) {
+                    throw new IllegalStateException(d.getPath() + " is already inside an indexed tree");
+                }
+                d.index = this;
+                queue.addAll(d.children);
+            }
+        }
+    }
+
+    // Called by Directory.remove: tombstones every file under node.
+    void removed(FileNode node) {
+        ArrayDeque<FileNode> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            FileNode n = queue.poll();
+            if (n instanceof File) {
+                File f = (File) n;
+                if (f.indexSeq >= 0) {
+                    f.indexSeq = -1;
+                    dead++;
+                }
+            } else if (n instanceof Directory) {
+                Directory d = (Directory) n;
+                d.index = null;
+                queue.addAll(d.children);
+            }
+        }
+        if (dead > 1024 && dead > count - dead) rebuild();
+    }
+
+    /** Live indexed files. */
+    int size() {
+        return count - dead;
+    }
+
+    private void rebuild() {
+        byName.clear();
+        byExtension.clear();
+        sortedSizes = new long[0];
+        sortedFiles = new File[0];
+        Arrays.fill(tailFiles, 0, tail, null);
+        tail = 0;
+        count = 0;
+        dead = 0;
+        added(root);
+    }
+
+    List<String> search(ConstraintPlanner.Plan plan) {
+        List<String> matches = new ArrayList<>();
+        if (plan == ConstraintPlanner.Plan.NEVER) return matches;
+
+        // Size range is always usable (unbounded = every file); the others only if present.
+        int lo = lowerBound(sortedSizes, plan.minSize());
+        int hi = upperBound(sortedSizes, plan.maxSize());
+        List<File> postings = null;
+        int best = hi - lo + tail;
+        if (plan.name() != null) {
+            List<File> p = byName.getOrDefault(plan.name(), List.of());
+            if (p.size() < best) { postings = p; best = p.size(); }
+        }
+        String extension = plan.extension();
+        int dot = extension == null ? -1 : extension.lastIndexOf('.');
+        if (dot >= 0) {
+            // A name ending in ".tar.gz" has ".gz" after its last dot, so that posting list holds every match.
+            List<File> p = byExtension.getOrDefault(extension.substring(dot), List.of());
+            if (p.size() < best) { postings = p; best = p.size(); }
+        }
+
+        List<File> found = new ArrayList<>();
+        if (postings != null) {
+            for (File f : postings) {
+                if (f.indexSeq >= 0 && plan.isSatisfied(f)) found.add(f);
+            }
+        } else {
+            for (int i = lo; i < hi; i++) {
+                File f = sortedFiles[i];
+                if (f.indexSeq >= 0 && plan.isSatisfied(f)) found.add(f);
+            }
+            for (int i = 0; i < tail; i++) {
+                File f = tailFiles[i];
+                if (f.indexSeq >= 0 && plan.isSatisfied(f)) found.add(f);
+            }
+        }
+        List<Ranked> ranked = new ArrayList<>(found.size());
+        for (File f : found) ranked.add(new Ranked(f, treePosition(f)));
+        ranked.sort(null);
+        File previous = null;
+        for (Ranked r : ranked) {
+            // A file removed and added again has a stale entry too; both sort together.
+            if (r.file != previous) matches.add(r.file.getPath());
+            previous = r.file;
+        }
+        return matches;
+    }
+
+    // childSeq of every node from just below the root down to node.
+    private int[] treePosition(FileNode node) {
+        int depth = 0;
+        for (FileNode n = node; n != root; n = n.parent) depth++;
+        int[] position = new int[depth];
+        for (FileNode n = node; n != root; n = n.parent) position[--depth] = n.childSeq;
+        return position;
+    }
+
+    private void index(File f) {
+        f.indexSeq = count++;
+        byName.computeIfAbsent(f.name, k -> new ArrayList<>(1)).add(f);
+        int dot = f.name.lastIndexOf('.');
+        if (dot >= 0) byExtension.computeIfAbsent(f.name.substring(dot), k -> new ArrayList<>()).add(f);
+        if (tail == tailFiles.length) tailFiles = Arrays.copyOf(tailFiles, tail * 2);
+        tailFiles[tail++] = f;
+        if (tail > 64 && tail > sortedSizes.length / 8) mergeTail();
+    }
+
+    // Sorts the tail and merges it into the sorted run; amortized O(log n) per file.
+    private void mergeTail() {
+        File[] added = Arrays.copyOf(tailFiles, tail);
+        Arrays.sort(added, Comparator.comparingLong(f -> f.size));
+        int n = sortedSizes.length, total = n + tail;
+        long[] sizes = new long[total];
+        File[] files = new File[total];
+        int i = 0, j = 0;
+        for (int k = 0; k < total; k++) {
+            if (j == added.length || (i < n && sortedSizes[i] <= added[j].size)) {
+                sizes[k] = sortedSizes[i];
+                files[k] = sortedFiles[i++];
+            } else {
+                sizes[k] = added[j].size;
+                files[k] = added[j++];
+            }
+        }
+        sortedSizes = sizes;
+        sortedFiles = files;
+        Arrays.fill(tailFiles, 0, tail, null);
+        tail = 0;
+    }
+
+    // First index whose size is >= min.
+    private static int lowerBound(long[] sizes, long min) {
+        int lo = 0, hi = sizes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sizes[mid] < min) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index whose size is > max.
+    private static int upperBound(long[] sizes, long max) {
+        int lo = 0, hi = sizes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sizes[mid] <= max) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** A match with its tree position; orders like a breadth-first walk from the root. */
+    private static final class Ranked implements Comparable<Ranked> {
+        final File file;
+        final int[] position;
+
+        Ranked(File file, int[] position) {
+            this.file = file;
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(Ranked o) {
+            if (position.length != o.position.length) return Integer.compare(position.length, o.position.length);
+            return Arrays.compare(position, o.position);
+        }
+    }
+}
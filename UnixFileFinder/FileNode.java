@@ -0,0 +1,20 @@
+package UnixFileFinder;
+
+// Base class representing a file or directory
+class FileNode {
+    String name;
+    boolean isDirectory;
+    String path;
+    Directory parent;   // set by Directory.add
+    int childSeq;       // add order among the parent's children, which is also their list order
+    
+    FileNode(String name, boolean isDirectory) {
+        this.name = name;
+        this.isDirectory = isDirectory;
+        this.path = name;
+    }
+    
+    String getPath() {
+        return path;
+    }
+}
@@ -1,127 +1,14 @@
+package UnixFileFinder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
-
-// Base class representing a file or directory
-class FileNode {
-    String name;
-    boolean isDirectory;
-    String path;
-    
-    FileNode(String name, boolean isDirectory) {
-        this.name = name;
-        this.isDirectory = isDirectory;
-        this.path = name;
-    }
-    
-    String getPath() {
-        return path;
-    }
-}
-
-// Represents a Directory, which can have children nodes
-class Directory extends FileNode {
-    List<FileNode> children;
-    
-    Directory(String name) {
-        super(name, true);
-        children = new ArrayList<>();
-    }
-    
-    void add(FileNode node) {
-        children.add(node);
-    }
-}
-
-// Represents a File, which has a size
-class File extends FileNode {
-    int size;
-    
-    File(String name, int size) {
-        super(name, false);
-        this.size = size;
-    }
-}
-
-// Constraint Interface
-interface Constraint {
-    boolean isSatisfied(File file);
-}
-
-// Concrete constraints
-class NameConstraint implements Constraint {
-    String name;
-    
-    NameConstraint(String name) {
-        this.name = name;
-    }
-    
-    public boolean isSatisfied(File file) {
-        return file.name.equals(name);
-    }
-}
-
-class SizeConstraint implements Constraint {
-    int minSize, maxSize;
-    
-    SizeConstraint(int minSize, int maxSize) {
-        this.minSize = minSize;
-        this.maxSize = maxSize;
-    }
-    
-    public boolean isSatisfied(File file) {
-        return file.size >= minSize && file.size <= maxSize;
-    }
-}
-
-class ExtensionConstraint implements Constraint {
-    String extension;
-    
-    ExtensionConstraint(String extension) {
-        this.extension = extension;
-    }
-    
-    public boolean isSatisfied(File file) {
-        return file.name.endsWith(extension);
-    }
-}
-
-// Main class for searching files
-class Search {
-    List<String> search(FileNode root, List<Constraint> constraints) {
-        Queue<FileNode> queue = new LinkedList<>();
-        queue.add(root);
-        List<String> matches = new ArrayList<>();
-        
-        while (!queue.isEmpty()) {
-            FileNode currentNode = queue.poll();
-            
-            if (currentNode instanceof File) {
-                File file = (File) currentNode;
-                boolean satisfiesAll = true;
-                for (Constraint constraint : constraints) {
-                    if (!constraint.isSatisfied(file)) {
-                        satisfiesAll = false;
-                        break;
-                    }
-                }
-                if (satisfiesAll) {
-                    matches.add(file.getPath());
-                }
-            }
-            
-            if (currentNode instanceof Directory) {
-                Directory directory = (Directory) currentNode;
-                queue.addAll(directory.children);
-            }
-        }
-        return matches;
-    }
-}
+import java.util.stream.Stream;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
         // Creating directory structure
         Directory root = new Directory("root");
         File file1 = new File("file1.txt", 500);
@@ -144,5 +31,38 @@ public class Main {
         for (String result : results) {
             System.out.println(result);
         }
+
+        // Parallel, keeping the sequential order.
+        System.out.println("Parallel (ordered): " + searchApi.searchParallel(root, constraints, true));
+
+        // Indexed: later adds are indexed as they happen, and lookups skip the tree walk.
+        FileIndex.attach(root);
+        Directory dir2 = new Directory("dir2");
+        dir2.add(new File("file4.mp4", 100));
+        root.add(dir2);
+        List<Constraint> byName = new ArrayList<>();
+        byName.add(new NameConstraint("file4.mp4"));
+        System.out.println("Indexed: " + searchApi.search(root, constraints) + ", by name: " + searchApi.search(root, byName));
+
+        // Real filesystem: the first few .java files under the working directory.
+        List<Constraint> javaFiles = new ArrayList<>();
+        javaFiles.add(new ExtensionConstraint(".java"));
+        try (Stream<Path> found = searchApi.search(Path.of("."), javaFiles)) {
+            found.limit(3).forEach(p -> System.out.println("On disk: " + p));
+        }
+
+        // Watched: read once, then kept current from change events.
+        Path scratch = Files.createTempDirectory("finder");
+        try (TreeWatcher watcher = TreeWatcher.open(scratch)) {
+            TreeWatcher.StandingQuery videos = watcher.watch(constraints);
+            Files.write(scratch.resolve("clip.mp4"), new byte[300]);
+            Files.write(scratch.resolve("movie.mp4"), new byte[900]);
+            Thread.sleep(200);
+            watcher.poll();
+            System.out.println("Watched: " + videos.results().size() + " of " + watcher.fileCount() + " files match");
+            Files.delete(scratch.resolve("clip.mp4"));
+            Files.delete(scratch.resolve("movie.mp4"));
+        }
+        Files.delete(scratch);
     }
 }
@@ -0,0 +1,13 @@
+package UnixFileFinder;
+
+class NameConstraint implements Constraint {
+    String name;
+    
+    NameConstraint(String name) {
+        this.name = name;
+    }
+    
+    public boolean isSatisfied(File file) {
+        return file.name.equals(name);
+    }
+}
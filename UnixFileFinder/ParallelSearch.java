@@ -0,0 +1,169 @@
+package UnixFileFinder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fork-join version of Search.search for large trees.
+ *
+ * Work is split at directories: a task walks its directory depth-first and
+ * forks a new task for a subdirectory only while its own queue is nearly empty
+ * (getSurplusQueuedTaskCount), otherwise it keeps the subdirectory on a local
+ * stack. Idle workers steal the forked subtrees, so a deep or lopsided tree is
+ * balanced without one task per directory. Tasks are CountedCompleters and
+ * never join, so stack depth does not grow with directory depth.
+ *
+ * Unordered mode appends matches to a buffer per worker thread and
+ * concatenates the buffers at the end. Ordered mode instead records, for every
+ * directory, its matching files and the slots for its subdirectories; a final
+ * breadth-first pass over those records yields exactly the order of the
+ * sequential search without touching the non-matching files again.
+ */
+class ParallelSearch {
+
+    // Fork only while fewer than this many of our own tasks are waiting to be stolen.
+    private static final int SURPLUS = 3;
+
+    static List<String> search(FileNode root, List<Constraint> constraints, boolean ordered, ForkJoinPool pool) {
+        // One worker cannot beat the plain walk; splitting would only add overhead.
+        if (pool.getParallelism() <= 1) return new Search().search(root, constraints);
+        ConstraintPlanner.Plan checks = ConstraintPlanner.compile(constraints);
+        if (checks == ConstraintPlanner.Plan.NEVER) return new ArrayList<>();
+        // An indexed root is answered without a walk, in the same order as Search.search.
+        FileIndex index = FileIndex.of(root);
+        if (index != null) return index.search(checks);
+        if (!(root instanceof Directory)) {
+            List<String> matches = new ArrayList<>(1);
+            if (root instanceof File && checks.isSatisfied((File) root)) matches.add(root.getPath());
+            return matches;
+        }
+        if (ordered) {
+            Listing top = new Listing();
+            pool.invoke(new OrderedTask(null, (Directory) root, top, checks));
+            return flatten(top);
+        }
+        Map<Thread, List<String>> buffers = new ConcurrentHashMap<>();
+        pool.invoke(new UnorderedTask(null, (Directory) root, checks, buffers));
+        int total = 0;
+        for (List<String> buffer : buffers.values()) total += buffer.size();
+        List<String> matches = new ArrayList<>(total);
+        for (List<String> buffer : buffers.values()) matches.addAll(buffer);
+        return matches;
+    }
+
+    // Breadth-first over the listings, which is the sequential search's order.
+    private static List<String> flatten(Listing top) {
+        List<String> matches = new ArrayList<>();
+        ArrayDeque<Listing> queue = new ArrayDeque<>();
+        queue.add(top);
+        while (!queue.isEmpty()) {
+            Listing listing = queue.poll();
+            if (listing.files != null) matches.addAll(listing.files);
+            if (listing.dirs != null) {
+                for (Listing sub : listing.dirs) queue.add(sub);
+            }
+        }
+        return matches;
+    }
+
+    /** Matches directly inside one directory, plus one listing per subdirectory in child order. */
+    private static final class Listing {
+        List<String> files;   // null if none
+        Listing[] dirs;       // null if none
+    }
+
+    @SuppressWarnings("serial")   // fork-join tasks are never serialized
+    private static final class UnorderedTask extends CountedCompleter<Void> {
+        private final Directory dir;
+        private final ConstraintPlanner.Plan checks;
+        private final Map<Thread, List<String>> buffers;
+
+        UnorderedTask(CountedCompleter<?> parent, Directory dir, ConstraintPlanner.Plan checks,
+                      Map<Thread, List<String>> buffers) {
+            super(parent);
+            this.dir = dir;
+            this.checks = checks;
+            this.buffers = buffers;
+        }
+
+        @Override
+        public void compute() {
+            // Only this thread appends to its buffer.
+            List<String> out = buffers.computeIfAbsent(Thread.currentThread(), t -> new ArrayList<>());
+            ArrayDeque<Directory> stack = new ArrayDeque<>();
+            stack.push(dir);
+            while (!stack.isEmpty()) {
+                for (FileNode child : stack.pop().children) {
+                    if (child instanceof File) {
+                        if (checks.isSatisfied((File) child)) out.add(child.getPath());
+                    } else if (child instanceof Directory) {
+                        if (getSurplusQueuedTaskCount() < SURPLUS) {
+                            addToPendingCount(1);
+                            new UnorderedTask(this, (Directory) child, checks, buffers).fork();
+                        } else {
+                            stack.push((Directory) child);
+                        }
+                    }
+                }
+            }
+            tryComplete();
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class OrderedTask extends CountedCompleter<Void> {
+        private final Directory dir;
+        private final Listing listing;
+        private final ConstraintPlanner.Plan checks;
+
+        OrderedTask(CountedCompleter<?> parent, Directory dir, Listing listing, ConstraintPlanner.Plan checks) {
+            super(parent);
+            this.dir = dir;
+            this.listing = listing;
+            this.checks = checks;
+        }
+
+        @Override
+        public void compute() {
+            // Directories kept for this task, each with the listing it fills in.
+            ArrayDeque<Directory> dirStack = new ArrayDeque<>();
+            ArrayDeque<Listing> listingStack = new ArrayDeque<>();
+            dirStack.push(dir);
+            listingStack.push(listing);
+            while (!dirStack.isEmpty()) {
+                List<FileNode> children = dirStack.pop().children;
+                Listing current = listingStack.pop();
+                int dirs = 0;
+                for (FileNode child : children) {
+                    if (child instanceof Directory) dirs++;
+                }
+                if (dirs > 0) current.dirs = new Listing[dirs];
+                int d = 0;
+                for (FileNode child : children) {
+                    if (child instanceof File) {
+                        if (checks.isSatisfied((File) child)) {
+                            if (current.files == null) current.files = new ArrayList<>();
+                            current.files.add(child.getPath());
+                        }
+                    } else if (child instanceof Directory) {
+                        Listing sub = new Listing();
+                        current.dirs[d++] = sub;
+                        if (getSurplusQueuedTaskCount() < SURPLUS) {
+                            addToPendingCount(1);
+                            new OrderedTask(this, (Directory) child, sub, checks).fork();
+                        } else {
+                            dirStack.push((Directory) child);
+                            listingStack.push(sub);
+                        }
+                    }
+                }
+            }
+            tryComplete();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package UnixFileFinder;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+// Main class for searching files
+class Search {
+    // Roots with a FileIndex are answered from the index, in the same breadth-first order.
+    List<String> search(FileNode root, List<Constraint> constraints) {
+        // One fused, reordered check per file instead of a walk over the list.
+        ConstraintPlanner.Plan plan = ConstraintPlanner.compile(constraints);
+        List<String> matches = new ArrayList<>();
+        if (plan == ConstraintPlanner.Plan.NEVER) return matches;
+        FileIndex index = FileIndex.of(root);
+        if (index != null) return index.search(plan);
+        Queue<FileNode> queue = new ArrayDeque<>();
+        queue.add(root);
+        
+        while (!queue.isEmpty()) {
+            FileNode currentNode = queue.poll();
+            
+            if (currentNode instanceof File) {
+                File file = (File) currentNode;
+                if (plan.isSatisfied(file)) {
+                    matches.add(file.getPath());
+                }
+            }
+            
+            if (currentNode instanceof Directory) {
+                Directory directory = (Directory) currentNode;
+                queue.addAll(directory.children);
+            }
+        }
+        return matches;
+    }
+
+    // Same matches on the common fork-join pool; with ordered, also in the same order as search.
+    List<String> searchParallel(FileNode root, List<Constraint> constraints, boolean ordered) {
+        return searchParallel(root, constraints, ordered, ForkJoinPool.commonPool());
+    }
+
+    List<String> searchParallel(FileNode root, List<Constraint> constraints, boolean ordered, ForkJoinPool pool) {
+        return ParallelSearch.search(root, constraints, ordered, pool);
+    }
+
+    // Same constraints against a real directory; matches stream in while the walk runs. Close the stream.
+    Stream<Path> search(Path root, List<Constraint> constraints) {
+        return DiskSearch.search(root, constraints, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+}
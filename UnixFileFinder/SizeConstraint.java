@@ -0,0 +1,14 @@
+package UnixFileFinder;
+
+class SizeConstraint implements Constraint {
+    long minSize, maxSize;
+    
+    SizeConstraint(long minSize, long maxSize) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+    
+    public boolean isSatisfied(File file) {
+        return file.size >= minSize && file.size <= maxSize;
+    }
+}
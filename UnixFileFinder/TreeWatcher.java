@@ -0,0 +1,303 @@
+package UnixFileFinder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A FileNode tree mirroring a real directory, kept current by a WatchService.
+ *
+ * open() walks the directory once, builds the tree with each node's path set
+ * to its real path, attaches a FileIndex and registers every directory for
+ * create, delete and modify events. After that the disk is never walked
+ * again except for a directory that newly appears, or an OVERFLOW event
+ * (too many changes to report one by one), which triggers a full rescan.
+ * Each event is applied as a delta: a file node is added, removed, or
+ * replaced with one of the new size, and the index follows.
+ *
+ * search() answers from the index without touching the disk, and without
+ * walking the tree however many deltas came before it: the index orders
+ * only the matches (see FileIndex). A standing
+ * query registered with watch() keeps its own result set, and each delta
+ * re-checks only the changed files against it, so reading its results costs
+ * nothing beyond copying them.
+ *
+ * Events are applied by poll(), or continuously by the thread started with
+ * start(). If that thread cannot apply an event it rescans the tree and goes
+ * on; if the rescan fails too it stops, and the next search(), watch() or
+ * close() throws the failure instead of serving results that no longer
+ * follow the disk. Thread-safe: deltas, searches and result reads share one
+ * lock.
+ */
+class TreeWatcher implements AutoCloseable {
+
+    private final Path root;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> dirsByKey = new HashMap<>();
+    private final Map<Path, WatchKey> keysByDir = new HashMap<>();
+    private final Map<Path, FileNode> nodes = new HashMap<>();
+    private final List<StandingQuery> queries = new ArrayList<>();
+    private final Search search = new Search();
+    private Directory tree;
+    private Thread thread;
+    private IOException failure;   // why the watcher thread stopped, if it failed
+
+    private TreeWatcher(Path root) throws IOException {
+        this.root = root;
+        this.watchService = root.getFileSystem().newWatchService();
+    }
+
+    /** Reads root into memory and starts recording changes under it. */
+    static TreeWatcher open(Path root) throws IOException {
+        TreeWatcher w = new TreeWatcher(root);
+        try {
+            w.rescan();
+        } catch (IOException | RuntimeException e) {
+            w.close();
+            throw e;
+        }
+        return w;
+    }
+
+    /** Same matches as Search.search over a fresh walk, as real paths, from memory. */
+    public synchronized List<String> search(List<Constraint> constraints) {
+        checkRunning();
+        return search.search(tree, constraints);
+    }
+
+    /** A query whose results are kept current as the tree changes. */
+    public synchronized StandingQuery watch(List<Constraint> constraints) {
+        checkRunning();
+        StandingQuery q = new StandingQuery(ConstraintPlanner.compile(constraints));
+        q.matches.addAll(search.search(tree, constraints));
+        queries.add(q);
+        return q;
+    }
+
+    public synchronized int fileCount() {
+        return FileIndex.of(tree).size();
+    }
+
+    /** Applies every event already reported, without waiting. Returns how many were applied. */
+    public int poll() throws IOException {
+        int applied = 0;
+        WatchKey key;
+        while ((key = watchService.poll()) != null) applied += apply(key);
+        return applied;
+    }
+
+    /** Starts a daemon thread that applies events as they arrive. */
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    try {
+                        apply(key);
+                    } catch (IOException e) {
+                        rescan();   // the tree may have missed changes; read it again
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Closed.
+            } catch (IOException e) {
+                failed(e);
+            } catch (RuntimeException e) {
+                failed(new IOException("Watcher thread failed", e));
+            }
+        }, "tree-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops watching. Throws the failure that stopped the watcher thread, if any and not yet reported. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        watchService.close();
+        IOException e = failure;
+        failure = null;
+        if (e != null) throw e;
+    }
+
+    private synchronized void failed(IOException e) {
+        failure = e;
+    }
+
+    private void checkRunning() {
+        if (failure != null) throw new UncheckedIOException("Watcher stopped; results are stale", failure);
+    }
+
+    private synchronized int apply(WatchKey key) throws IOException {
+        Path dir = dirsByKey.get(key);
+        int applied = 0;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                rescan();
+                return applied + 1;
+            }
+            if (dir == null) continue;
+            Path path = dir.resolve((Path) event.context());
+            if (kind == StandardWatchEventKinds.ENTRY_DELETE) delete(path);
+            else refresh(path);
+            applied++;
+        }
+        if (!key.reset()) {
+            // The directory itself is gone; its parent's delete event removes the nodes.
+            Path gone = dirsByKey.remove(key);
+            if (gone != null) keysByDir.remove(gone);
+        }
+        return applied;
+    }
+
+    // Brings path's node in line with the disk after a create or modify event.
+    private void refresh(Path path) throws IOException {
+        FileNode parent = nodes.get(path.getParent());
+        if (!(parent instanceof Directory)) return;   // its own create event walks it
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            delete(path);   // already gone again
+            return;
+        }
+        FileNode existing = nodes.get(path);
+        if (attrs.isDirectory()) {
+            if (existing instanceof Directory) return;
+            delete(path);
+            walk(path, (Directory) parent);
+        } else if (attrs.isRegularFile()) {
+            // Only the name and size are searchable, so a same-size modify changes nothing.
+            if (existing instanceof File && ((File) existing).size == attrs.size()) return;
+            delete(path);
+            addFile(path, attrs.size(), (Directory) parent);
+        } else {
+            delete(path);
+        }
+    }
+
+    private void delete(Path path) {
+        FileNode node = nodes.remove(path);
+        if (node == null) return;
+        FileNode parent = nodes.get(path.getParent());
+        if (parent instanceof Directory) ((Directory) parent).remove(node);
+        ArrayDeque<FileNode> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            FileNode n = queue.poll();
+            Path p = Path.of(n.getPath());
+            if (n != node) nodes.remove(p);
+            if (n instanceof File) {
+                for (StandingQuery q : queries) q.matches.remove(n.getPath());
+            } else if (n instanceof Directory) {
+                WatchKey key = keysByDir.remove(p);
+                if (key != null) {
+                    key.cancel();
+                    dirsByKey.remove(key);
+                }
+                queue.addAll(((Directory) n).children);
+            }
+        }
+    }
+
+    private void addFile(Path path, long size, Directory parent) {
+        File f = new File(path.getFileName().toString(), size);
+        f.path = path.toString();
+        parent.add(f);
+        nodes.put(path, f);
+        for (StandingQuery q : queries) {
+            if (q.plan.isSatisfied(f)) q.matches.add(f.path);
+        }
+    }
+
+    // Reads the directory tree at start into parent (or as the root when parent is null).
+    private void walk(Path start, Directory parent) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                // Register before listing, so entries created meanwhile are at worst seen twice.
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                dirsByKey.put(key, dir);
+                keysByDir.put(dir, key);
+                Path name = dir.getFileName();
+                Directory d = new Directory(name == null ? dir.toString() : name.toString());
+                d.path = dir.toString();
+                if (!dir.equals(start)) ((Directory) nodes.get(dir.getParent())).add(d);
+                else if (parent != null) parent.add(d);
+                else tree = d;
+                nodes.put(dir, d);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) addFile(file, attrs.size(), (Directory) nodes.get(file.getParent()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;   // unreadable, or removed while walking
+            }
+        });
+    }
+
+    // Drops everything and reads the tree again; used at open and after OVERFLOW.
+    private synchronized void rescan() throws IOException {
+        for (WatchKey key : dirsByKey.keySet()) key.cancel();
+        dirsByKey.clear();
+        keysByDir.clear();
+        nodes.clear();
+        tree = null;
+        // The walk adds every file, refilling the standing queries as it goes.
+        for (StandingQuery q : queries) q.matches.clear();
+        walk(root, null);
+        if (tree == null) throw new IOException(root + " is not a readable directory");
+        FileIndex.attach(tree);
+    }
+
+    /** Results of one watched query, re-checked only for files that change. */
+    final class StandingQuery {
+        private final ConstraintPlanner.Plan plan;
+        private final Set<String> matches = new LinkedHashSet<>();
+
+        private StandingQuery(ConstraintPlanner.Plan plan) {
+            this.plan = plan;
+        }
+
+        public List<String> results() {
+            synchronized (TreeWatcher.this) {
+                return new ArrayList<>(matches);
+            }
+        }
+
+        public void cancel() {
+            synchronized (TreeWatcher.this) {
+                queries.remove(this);
+            }
+        }
+    }
+}
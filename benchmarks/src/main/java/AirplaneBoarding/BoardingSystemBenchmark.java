@@ -0,0 +1,70 @@
+package AirplaneBoarding;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A Flight always has 30 seats, so the size parameter is the number of
+ * occupied seats. Each op re-occupies them and then calls disembarkAll.
+ * System.out is swapped for a discarding stream so console I/O is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardingSystemBenchmark {
+
+    @Param({"5", "30"})
+    int passengers;
+
+    Flight flight;
+    BoardingSystem boarding;
+    Seat[] occupied;
+    PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        flight = new Flight("AB123");
+        boarding = new BoardingSystem(flight);
+        occupied = new Seat[passengers];
+        int n = 0;
+        for (int row = 1; row <= 5 && n < passengers; row++) {
+            for (char col = 'A'; col <= 'F' && n < passengers; col++) {
+                String seatId = row + String.valueOf(col);
+                boarding.addPassenger(new Passenger("P" + n, "AB123-" + seatId), seatId);
+                occupied[n++] = flight.getSeat(seatId);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void disembarkAll() {
+        for (Seat seat : occupied) {
+            seat.occupySeat();
+        }
+        boarding.disembarkAll();
+    }
+}
@@ -0,0 +1,68 @@
+package AmazonLocker;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One op = assignPackage + getPackage, so the site stays half full across iterations.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickupLocationBenchmark {
+
+    @Param({"1000", "100000"})
+    int lockers;
+
+    PickupLocation location;
+    CompactPickupLocation compact;
+    Package[] packages;
+    int next;
+
+    @Setup
+    public void setup() {
+        Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+        for (Size sz : Size.values()) {
+            sizes.put(sz, lockers / Size.values().length);
+        }
+        location = new PickupLocation(sizes);
+        compact = new CompactPickupLocation(sizes);
+        // Occupy half of the lockers up front.
+        for (int i = 0; i < lockers / 2; i++) {
+            location.assignPackage(new Package(Size.values()[i % 3]));
+            compact.assignPackage(new Package(Size.values()[i % 3]));
+        }
+        packages = new Package[1024];
+        for (int i = 0; i < packages.length; i++) {
+            packages[i] = new Package(Size.values()[i % 3]);
+        }
+    }
+
+    @Benchmark
+    public Package assignAndRetrieve() {
+        Package p = packages[next++ & (packages.length - 1)];
+        location.assignPackage(p);
+        return location.getPackage(p.getId());
+    }
+
+    @Benchmark
+    public Package compactAssignAndRetrieve() {
+        Package p = packages[next++ & (packages.length - 1)];
+        compact.assignPackage(p);
+        return compact.getPackage(p.getId());
+    }
+}
@@ -0,0 +1,67 @@
+package AmazonLocker;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Many threads assigning and retrieving packages at one shared site.
+ * Compare throughput across thread counts, e.g. -t 1, -t 4, -t max.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickupLocationContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Site {
+        @Param({"1000", "100000"})
+        int lockers;
+
+        PickupLocation location;
+
+        @Setup
+        public void setup() {
+            Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+            for (Size sz : Size.values()) {
+                sizes.put(sz, lockers / Size.values().length);
+            }
+            location = new PickupLocation(sizes);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Courier {
+        Package[] packages;
+        int next;
+
+        @Setup
+        public void setup() {
+            packages = new Package[256];
+            for (int i = 0; i < packages.length; i++) {
+                packages[i] = new Package(Size.values()[i % 3]);
+            }
+        }
+    }
+
+    @Benchmark
+    public Package assignAndRetrieve(Site site, Courier courier) {
+        Package p = courier.packages[courier.next++ & (courier.packages.length - 1)];
+        site.location.assignPackage(p);
+        return site.location.getPackage(p.getId());
+    }
+}
@@ -0,0 +1,43 @@
+package AmazonReview;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReviewManagerBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int reviews;
+
+    ReviewManager manager;
+
+    @Setup
+    public void setup() {
+        manager = new ReviewManager();
+        manager.addProduct(new Product("P1", "Amazon Echo"));
+        for (int i = 0; i < reviews; i++) {
+            manager.addReview("R" + i, "P1", "C" + i, 1 + i % 5, "review " + i);
+        }
+    }
+
+    @Benchmark
+    public double getAverageRating() {
+        return manager.getAverageRating("P1");
+    }
+}
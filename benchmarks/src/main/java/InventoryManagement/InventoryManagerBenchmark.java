@@ -0,0 +1,110 @@
+package InventoryManagement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One op = queue a batch of mixed ADD/REMOVE/TRANSFER requests and process it,
+// optionally journaled to a ledger that is recreated every iteration.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryManagerBenchmark {
+
+    private static final int WAREHOUSES = 8;
+
+    @Param({"1000", "100000"})
+    int requests;
+
+    @Param({"100", "10000"})
+    int products;
+
+    @Param({"false", "true"})
+    boolean ledger;
+
+    InventoryManager manager;
+    InventoryManager.InventoryRequest[] batch;
+    Path dir;
+    InventoryLedger journal;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        if (ledger) {
+            dir = Files.createTempDirectory("inventory-bench");
+            journal = InventoryLedger.open(dir, Integer.MAX_VALUE);
+            manager = new InventoryManager(journal);
+        } else {
+            manager = new InventoryManager();
+        }
+        for (int w = 0; w < WAREHOUSES; w++) {
+            manager.addWarehouse(new Warehouse("W" + w, journal != null ? journal.getCatalog() : ProductCatalog.DEFAULT));
+        }
+        Random random = new Random(42);
+        batch = new InventoryManager.InventoryRequest[requests];
+        for (int i = 0; i < requests; i++) {
+            String product = "P" + random.nextInt(products);
+            String warehouse = "W" + random.nextInt(WAREHOUSES);
+            int qty = 1 + random.nextInt(10);
+            switch (i % 3) {
+                case 0:
+                    batch[i] = new InventoryManager.InventoryRequest(RequestType.ADD, product, qty, warehouse);
+                    break;
+                case 1:
+                    batch[i] = new InventoryManager.InventoryRequest(RequestType.REMOVE, product, qty, warehouse);
+                    break;
+                default:
+                    batch[i] = new InventoryManager.InventoryRequest(product, qty, warehouse,
+                            "W" + random.nextInt(WAREHOUSES));
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (journal == null) return;
+        journal.close();
+        journal = null;
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public InventoryManager processRequests() {
+        for (InventoryManager.InventoryRequest req : batch) {
+            manager.addRequest(req);
+        }
+        manager.processRequests();
+        return manager;
+    }
+
+    @Benchmark
+    public InventoryManager processRequestsBatched() {
+        for (InventoryManager.InventoryRequest req : batch) {
+            manager.addRequest(req);
+        }
+        manager.processRequestsBatched();
+        return manager;
+    }
+}
@@ -0,0 +1,73 @@
+package InventoryManagement;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Flash sale: many threads reserving and then committing or releasing holds
+ * on a few hot SKUs, with the expiry ticker running. Compare throughput
+ * across thread counts, e.g. -t 1, -t 4, -t max.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Sale {
+        @Param({"1", "16"})
+        int hotProducts;
+
+        Warehouse warehouse;
+        StockReservations reservations;
+        String[] products;
+
+        @Setup
+        public void setup() {
+            warehouse = new Warehouse("W1", new ProductCatalog());
+            products = new String[hotProducts];
+            for (int i = 0; i < hotProducts; i++) {
+                products[i] = "HOT" + i;
+                warehouse.addStock(products[i], 1000000);
+            }
+            reservations = new StockReservations(10);
+            reservations.start();
+        }
+
+        @TearDown
+        public void tearDown() {
+            reservations.close();
+        }
+    }
+
+    @Benchmark
+    public boolean reserveThenCommitOrRelease(Sale sale) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String product = sale.products[random.nextInt(sale.products.length)];
+        StockReservations.Hold hold = sale.reservations.reserve(sale.warehouse, product, 1,
+                System.currentTimeMillis() + 1000);
+        if (hold == null) return false;
+        if (random.nextBoolean()) {
+            // Keep the sale going: put the sold unit back on the shelf.
+            sale.reservations.commit(hold);
+            sale.warehouse.addStock(product, 1);
+            return true;
+        }
+        return sale.reservations.release(hold);
+    }
+}
@@ -0,0 +1,84 @@
+package InventoryManagement;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Same mixed ADD/REMOVE/TRANSFER batches as InventoryManagerBenchmark, applied
+ * by ShardedInventoryManager. Compare across workers to see scaling with cores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedInventoryManagerBenchmark {
+
+    private static final int WAREHOUSES = 8;
+
+    @Param({"1000", "100000"})
+    int requests;
+
+    @Param({"100", "10000"})
+    int products;
+
+    @Param({"1", "2", "4", "8"})
+    int workers;
+
+    ShardedInventoryManager manager;
+    InventoryManager.InventoryRequest[] batch;
+
+    @Setup
+    public void setup() {
+        manager = new ShardedInventoryManager(workers);
+        for (int w = 0; w < WAREHOUSES; w++) {
+            manager.addWarehouse(new Warehouse("W" + w));
+        }
+        Random random = new Random(42);
+        batch = new InventoryManager.InventoryRequest[requests];
+        for (int i = 0; i < requests; i++) {
+            String product = "P" + random.nextInt(products);
+            String warehouse = "W" + random.nextInt(WAREHOUSES);
+            int qty = 1 + random.nextInt(10);
+            switch (i % 3) {
+                case 0:
+                    batch[i] = new InventoryManager.InventoryRequest(RequestType.ADD, product, qty, warehouse);
+                    break;
+                case 1:
+                    batch[i] = new InventoryManager.InventoryRequest(RequestType.REMOVE, product, qty, warehouse);
+                    break;
+                default:
+                    batch[i] = new InventoryManager.InventoryRequest(product, qty, warehouse,
+                            "W" + random.nextInt(WAREHOUSES));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public ShardedInventoryManager processRequests() throws InterruptedException {
+        for (InventoryManager.InventoryRequest req : batch) {
+            manager.addRequest(req);
+        }
+        manager.processRequests();
+        return manager;
+    }
+}
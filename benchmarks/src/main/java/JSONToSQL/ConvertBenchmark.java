@@ -0,0 +1,52 @@
+package JSONToSQL;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Size = number of selected columns and WHERE terms in the document.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertBenchmark {
+
+    @Param({"4", "64"})
+    int columns;
+
+    String json;
+
+    @Setup
+    public void setup() {
+        StringBuilder select = new StringBuilder();
+        StringBuilder where = new StringBuilder();
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                select.append(", ");
+                where.append(" AND ");
+            }
+            select.append("col").append(i);
+            where.append("col").append(i).append(" = 'value ").append(i).append('\'');
+        }
+        json = "{\n  \"select\": \"" + select + "\",\n  \"from\": \"myTable\",\n"
+                + "  \"where\": \"" + where + "\",\n  \"orderBy\": \"col0 asc\",\n"
+                + "  \"limit\": 100,\n  \"offset\": 5\n}";
+    }
+
+    @Benchmark
+    public String convert() {
+        return SimpleJsonToSqlConverter.convert(json);
+    }
+}
@@ -0,0 +1,51 @@
+package PackageInstaller;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Random DAG: package i depends on up to DEPS packages with a smaller index.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackageManagerBenchmark {
+
+    private static final int DEPS = 4;
+
+    @Param({"100", "10000"})
+    int packages;
+
+    PackageManager manager;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        manager = new PackageManager();
+        manager.addPackage("pkg0");
+        for (int i = 1; i < packages; i++) {
+            for (int d = 0; d < DEPS; d++) {
+                manager.addDependency("pkg" + i, "pkg" + random.nextInt(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> getInstallationOrder() throws PackageManager.CycleDetectedException {
+        return manager.getInstallationOrder();
+    }
+}
@@ -0,0 +1,64 @@
+package ParkingLot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One op = assignParkingSpace + processExit on a lot whose lower half is already full.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingLotBenchmark {
+
+    private static final int SPACES_PER_FLOOR = 100;
+
+    @Param({"100", "10000"})
+    int spaces;
+
+    ParkingLot lot;
+    Vehicle[] vehicles;
+    int next;
+
+    @Setup
+    public void setup() {
+        lot = new ParkingLot("Bench");
+        for (int f = 0; f * SPACES_PER_FLOOR < spaces; f++) {
+            Floor floor = new Floor("F" + f);
+            for (int s = 0; s < SPACES_PER_FLOOR; s++) {
+                String id = f + "-" + s;
+                switch (s % 3) {
+                    case 0: floor.addParkingSpace(new SmallParkingSpot(id)); break;
+                    case 1: floor.addParkingSpace(new MediumParkingSpot(id)); break;
+                    default: floor.addParkingSpace(new LargeParkingSpot(id));
+                }
+            }
+            lot.addFloor(floor);
+        }
+        for (int i = 0; i < spaces / 2; i++) {
+            lot.assignParkingSpace(new LargeVehicle("PARKED" + i));
+        }
+        vehicles = new Vehicle[] {
+            new SmallVehicle("S1"), new MediumVehicle("M1"), new LargeVehicle("L1")
+        };
+    }
+
+    @Benchmark
+    public boolean assignParkingSpace() {
+        Vehicle v = vehicles[next++ % vehicles.length];
+        lot.assignParkingSpace(v);
+        return lot.processExit(v.getLicensePlate());
+    }
+}
@@ -0,0 +1,63 @@
+package SocialNetwork;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Mutual friendship writes and lock-free reads on one shared graph; run with -t N on a multi-core machine to measure write scaling.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentGraphBenchmark {
+
+    @Param({"100000"})
+    int users;
+
+    @Param({"10"})
+    int degree;
+
+    ConcurrentSocialGraph graph;
+    User[] all;
+
+    @Setup
+    public void setup() {
+        graph = new ConcurrentSocialGraph();
+        all = new User[users];
+        for (int i = 0; i < users; i++) {
+            all[i] = graph.addUser(String.valueOf(i), "User" + i);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (User u : all) {
+            for (int d = 0; d < degree / 2; d++) {
+                u.addFriend(all[random.nextInt(users)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean toggleFriendship() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User a = all[random.nextInt(users)], b = all[random.nextInt(users)];
+        return graph.addFriend(a, b) || graph.removeFriend(a, b);
+    }
+
+    @Benchmark
+    public Set<User> getFriends() {
+        return all[ThreadLocalRandom.current().nextInt(users)].getFriends();
+    }
+}
@@ -0,0 +1,76 @@
+package SocialNetwork;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Bulk import into an empty graph; compare threads=1 with larger pools on a multi-core machine for import scaling.
+// hubShare is the fraction of friendships that go to user 0, to include one very high-degree row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentImportBenchmark {
+
+    @Param({"100000"})
+    int users;
+
+    @Param({"400000"})
+    int friendships;
+
+    @Param({"0", "0.5"})
+    double hubShare;
+
+    @Param({"1", "4"})
+    int threads;
+
+    ForkJoinPool pool;
+    ConcurrentSocialGraph graph;
+    User[] a, b;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        graph = new ConcurrentSocialGraph();
+        User[] all = new User[users];
+        for (int i = 0; i < users; i++) all[i] = graph.addUser(String.valueOf(i), "User" + i);
+        Random random = new Random(7);
+        a = new User[friendships];
+        b = new User[friendships];
+        for (int i = 0; i < friendships; i++) {
+            a[i] = random.nextDouble() < hubShare ? all[0] : all[random.nextInt(users)];
+            b[i] = all[random.nextInt(users)];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public ConcurrentSocialGraph importFriendships() {
+        graph.importFriendships(a, b, pool);
+        return graph;
+    }
+}
@@ -0,0 +1,77 @@
+package SocialNetwork;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Random graph of 'users' users, each with 'degree' outgoing friendships.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendsOfFriendsBenchmark {
+
+    @Param({"10000"})
+    int users;
+
+    @Param({"10", "100", "1000"})
+    int degree;
+
+    User[] all;
+    User[] graphUsers;   // the same friendships in a SocialGraph
+    FriendsOfFriends engine;
+    int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        all = new User[users];
+        for (int i = 0; i < users; i++) {
+            all[i] = new User(String.valueOf(i), "User" + i);
+        }
+        SocialGraph graph = new SocialGraph();
+        graphUsers = new User[users];
+        for (int i = 0; i < users; i++) {
+            graphUsers[i] = graph.addUser(String.valueOf(i), "User" + i);
+        }
+        for (int i = 0; i < users; i++) {
+            for (int d = 0; d < degree; d++) {
+                int friend = random.nextInt(users);
+                all[i].addFriend(all[friend]);
+                graphUsers[i].addFriend(graphUsers[friend]);
+            }
+        }
+        graph.compact();
+        engine = graph.friendsOfFriends();
+    }
+
+    @Benchmark
+    public Set<User> getFriendsOfFriends() {
+        return all[next++ % users].getFriendsOfFriends();
+    }
+
+    @Benchmark
+    public Set<User> graphFriendsOfFriends() {
+        return graphUsers[next++ % users].getFriendsOfFriends();
+    }
+
+    @Benchmark
+    public List<FriendsOfFriends.Suggestion> graphTop10() {
+        return engine.top(graphUsers[next++ % users], 10);
+    }
+}
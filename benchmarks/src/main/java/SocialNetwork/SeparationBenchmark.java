@@ -0,0 +1,69 @@
+package SocialNetwork;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Random graph of 'users' users, each with 'degree' outgoing friendships; queries between random pairs.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SeparationBenchmark {
+
+    @Param({"100000", "2000000"})
+    int users;
+
+    @Param({"10"})
+    int degree;
+
+    User[] all;
+    Separation separation;
+    int[] pairs;
+    int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        SocialGraph graph = new SocialGraph();
+        all = new User[users];
+        for (int i = 0; i < users; i++) {
+            all[i] = graph.addUser(String.valueOf(i), "User" + i);
+        }
+        for (User u : all) {
+            for (int d = 0; d < degree; d++) {
+                u.addFriend(all[random.nextInt(users)]);
+            }
+        }
+        graph.compact();
+        separation = graph.separation();
+        pairs = new int[2048];
+        for (int i = 0; i < pairs.length; i++) pairs[i] = random.nextInt(users);
+    }
+
+    @Benchmark
+    public int distance() {
+        int i = next++ & (pairs.length - 2);
+        return separation.distance(all[pairs[i]], all[pairs[i + 1]]);
+    }
+
+    @Benchmark
+    public List<User> shortestPath() {
+        int i = next++ & (pairs.length - 2);
+        return separation.shortestPath(all[pairs[i]], all[pairs[i + 1]]);
+    }
+}
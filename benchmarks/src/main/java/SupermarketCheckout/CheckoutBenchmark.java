@@ -0,0 +1,47 @@
+package SupermarketCheckout;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"10", "1000"})
+    int items;
+
+    Checkout checkout;
+    Cart cart;
+
+    @Setup
+    public void setup() {
+        cart = new Cart();
+        for (int i = 0; i < items; i++) {
+            cart.addItem(new Product("SKU" + i, "Item" + i, 1.0 + i % 20), 1 + i % 4);
+        }
+        PromotionEngine engine = new PromotionEngine();
+        engine.addPromotion(new BogoPromotion("BOGO", "SKU0"));
+        engine.addPromotion(new PercentageDiscountPromotion("TenPercentOff", 0.10));
+        checkout = new Checkout(engine);
+    }
+
+    @Benchmark
+    public double calculateTotal() {
+        return checkout.calculateTotal(cart);
+    }
+}
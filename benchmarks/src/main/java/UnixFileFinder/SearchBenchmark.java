@@ -0,0 +1,101 @@
+package UnixFileFinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Searches a tree of 'files' files spread over directories of FANOUT entries.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int FANOUT = 16;
+    private static final String[] EXTENSIONS = {".txt", ".mp4", ".java", ".log"};
+
+    @Param({"1000", "100000"})
+    int files;
+
+    Directory root;
+    Directory indexedRoot;
+    List<Constraint> constraints;
+    List<Constraint> byName;
+    Search search;
+
+    @Setup
+    public void setup() {
+        root = new Directory("root");
+        build(root);
+        // Same tree, indexed incrementally as it is built.
+        indexedRoot = new Directory("root");
+        FileIndex.attach(indexedRoot);
+        build(indexedRoot);
+        constraints = new ArrayList<>();
+        constraints.add(new SizeConstraint(0, 500));
+        constraints.add(new ExtensionConstraint(".mp4"));
+        byName = new ArrayList<>();
+        byName.add(new NameConstraint("file" + files / 2 + EXTENSIONS[files / 2 % EXTENSIONS.length]));
+        search = new Search();
+    }
+
+    private void build(Directory root) {
+        Random random = new Random(42);
+        List<Directory> dirs = new ArrayList<>();
+        dirs.add(root);
+        for (int i = 0; i < files; i++) {
+            Directory parent = dirs.get(random.nextInt(dirs.size()));
+            parent.add(new File("file" + i + EXTENSIONS[i % EXTENSIONS.length], random.nextInt(1000)));
+            if (i % FANOUT == 0) {
+                Directory dir = new Directory("dir" + i);
+                parent.add(dir);
+                dirs.add(dir);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> search() {
+        return search.search(root, constraints);
+    }
+
+    @Benchmark
+    public List<String> searchIndexed() {
+        return search.search(indexedRoot, constraints);
+    }
+
+    @Benchmark
+    public List<String> searchByName() {
+        return search.search(root, byName);
+    }
+
+    @Benchmark
+    public List<String> searchByNameIndexed() {
+        return search.search(indexedRoot, byName);
+    }
+
+    @Benchmark
+    public List<String> searchParallel() {
+        return search.searchParallel(root, constraints, false);
+    }
+
+    @Benchmark
+    public List<String> searchParallelOrdered() {
+        return search.searchParallel(root, constraints, true);
+    }
+}